@@ -6,6 +6,7 @@ public class Asset {
     private String targetDirectory;
     private String zipDirectory;
     private String type;
+    private String sha256;
 
     public static Asset withUrl(String url) {
         Asset result = new Asset();
@@ -13,6 +14,10 @@ public class Asset {
         return result;
     }
 
+    public String getSha256() {
+        return this.sha256;
+    }
+
     public String getTargetDirectory() {
         return this.targetDirectory;
     }
@@ -29,6 +34,10 @@ public class Asset {
         return this.zipDirectory;
     }
 
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
     public void setTargetDirectory(String targetDirectory) {
         this.targetDirectory = targetDirectory;
     }
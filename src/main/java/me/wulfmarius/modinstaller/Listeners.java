@@ -1,11 +1,12 @@
 package me.wulfmarius.modinstaller;
 
-import java.util.*;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.function.Consumer;
 
 public class Listeners<T> {
 
-    private final Set<T> listeners = new HashSet<>();
+    private final Set<T> listeners = new CopyOnWriteArraySet<>();
 
     public void addListener(T listener) {
         this.listeners.add(listener);
@@ -15,6 +16,10 @@ public class Listeners<T> {
         this.listeners.forEach(action);
     }
 
+    public boolean isEmpty() {
+        return this.listeners.isEmpty();
+    }
+
     public void removeListener(T listener) {
         this.listeners.remove(listener);
     }
@@ -1,9 +1,10 @@
 package me.wulfmarius.modinstaller;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.*;
 
 public class ModDefinition {
 
@@ -15,6 +16,9 @@ public class ModDefinition {
     private String version;
     private String description;
     private String changes;
+    // set instead of the texts once they live in the text store
+    private String descriptionDigest;
+    private String changesDigest;
     private Date releaseDate;
     private Date lastUpdated;
     private Asset[] assets;
@@ -27,6 +31,12 @@ public class ModDefinition {
     @JsonIgnore
     private transient Version parsedCompatibleWith;
 
+    @JsonIgnore
+    private TextReference descriptionReference;
+
+    @JsonIgnore
+    private TextReference changesReference;
+
     public static int latest(ModDefinition m1, ModDefinition m2) {
         return -Version.compare(m1.getParsedVersion(), m2.getParsedVersion());
     }
@@ -57,6 +67,30 @@ public class ModDefinition {
         return true;
     }
 
+    public boolean externalizeTexts(Function<String, TextReference> textStore) {
+        boolean result = false;
+
+        if (this.description != null) {
+            this.descriptionReference = textStore.apply(this.description);
+            if (this.descriptionReference != null) {
+                this.description = null;
+                this.descriptionDigest = this.descriptionReference.getDigest();
+                result = true;
+            }
+        }
+
+        if (this.changes != null) {
+            this.changesReference = textStore.apply(this.changes);
+            if (this.changesReference != null) {
+                this.changes = null;
+                this.changesDigest = this.changesReference.getDigest();
+                result = true;
+            }
+        }
+
+        return result;
+    }
+
     public Asset[] getAssets() {
         return this.assets;
     }
@@ -66,6 +100,10 @@ public class ModDefinition {
     }
 
     public String getChanges() {
+        if (this.changes == null && this.changesReference != null) {
+            return this.changesReference.get();
+        }
+
         return this.changes;
     }
 
@@ -86,6 +124,10 @@ public class ModDefinition {
     }
 
     public String getDescription() {
+        if (this.description == null && this.descriptionReference != null) {
+            return this.descriptionReference.get();
+        }
+
         return this.description;
     }
 
@@ -125,12 +167,36 @@ public class ModDefinition {
         return this.version;
     }
 
+    public void inlineTexts() {
+        if (this.descriptionReference != null) {
+            this.setDescription(this.descriptionReference.getUncached());
+        }
+
+        if (this.changesReference != null) {
+            this.setChanges(this.changesReference.getUncached());
+        }
+    }
+
+    public boolean resolveTexts(Function<String, TextReference> textStore) {
+        if (this.descriptionDigest != null) {
+            this.descriptionReference = textStore.apply(this.descriptionDigest);
+        }
+
+        if (this.changesDigest != null) {
+            this.changesReference = textStore.apply(this.changesDigest);
+        }
+
+        return (this.descriptionDigest == null || this.descriptionReference != null)
+                && (this.changesDigest == null || this.changesReference != null);
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
         result = prime * result + (this.name == null ? 0 : this.name.hashCode());
-        result = prime * result + (this.version == null ? 0 : this.version.hashCode());
+        // equals compares parsed versions, so "1.0" and "1.0.0" must hash alike
+        result = prime * result + (this.version == null ? 0 : this.getParsedVersion().hashCode());
         return result;
     }
 
@@ -150,8 +216,11 @@ public class ModDefinition {
         this.author = author;
     }
 
+    @JsonProperty("changes")
     public void setChanges(String changes) {
         this.changes = changes;
+        this.changesDigest = null;
+        this.changesReference = null;
     }
 
     public void setCompatibleWith(String compatibleWith) {
@@ -162,8 +231,11 @@ public class ModDefinition {
         this.dependencies = dependencies;
     }
 
+    @JsonProperty("description")
     public void setDescription(String description) {
         this.description = description;
+        this.descriptionDigest = null;
+        this.descriptionReference = null;
     }
 
     public void setLastUpdated(Date lastUpdated) {
@@ -8,7 +8,7 @@ import com.fasterxml.jackson.annotation.*;
 public class ModDefinitions implements Iterable<ModDefinition> {
 
     @JsonValue
-    private List<ModDefinition> modDefinitions = new ArrayList<>();
+    private Set<ModDefinition> modDefinitions = new LinkedHashSet<>();
 
     @JsonCreator
     public static ModDefinitions create(ModDefinition... modDefinition) {
@@ -53,13 +53,14 @@ public class ModDefinitions implements Iterable<ModDefinition> {
     }
 
     public static Collector<ModDefinition, ?, ModDefinitions> toModDefinitions() {
-        return Collectors.reducing(new ModDefinitions(), ModDefinitions::create, ModDefinitions::merge);
+        return Collector.of(ModDefinitions::new, ModDefinitions::addModDefinition, (definitions1, definitions2) -> {
+            definitions1.addModDefinitions(definitions2);
+            return definitions1;
+        });
     }
 
     public void addModDefinition(ModDefinition definition) {
-        if (!this.modDefinitions.contains(definition)) {
-            this.modDefinitions.add(definition);
-        }
+        this.modDefinitions.add(definition);
     }
 
     public void addModDefinitions(Iterable<ModDefinition> definitions) {
@@ -123,7 +124,9 @@ public class ModDefinitions implements Iterable<ModDefinition> {
     }
 
     public void reverse() {
-        Collections.reverse(this.modDefinitions);
+        List<ModDefinition> reversed = new ArrayList<>(this.modDefinitions);
+        Collections.reverse(reversed);
+        this.modDefinitions = new LinkedHashSet<>(reversed);
     }
 
     public boolean satisfies(ModDependency modDependency) {
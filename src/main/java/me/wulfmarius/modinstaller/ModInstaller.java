@@ -1,6 +1,7 @@
 package me.wulfmarius.modinstaller;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.util.*;
 import java.util.stream.*;
@@ -25,11 +26,15 @@ public class ModInstaller {
     private final Repository repository;
     private final UpdateChecker updateChecker;
     private final CompatibilityChecker compatibilityChecker;
+    // only touched by the thread installing or uninstalling, readers use the published copy
     private final Installations installations = new Installations();
 
     private final InstallationsChangedListeners installationsChangedListeners = new InstallationsChangedListeners();
     private final ProgressListeners progressListeners = new ProgressListeners();
 
+    private volatile Installations publishedInstallations = Installations.unmodifiable(Collections.emptyList());
+    private volatile RequiredByInstallations requiredByInstallations;
+
     public ModInstaller(Path basePath) {
         super();
 
@@ -40,6 +45,8 @@ public class ModInstaller {
             throw new ModInstallerException("Could not create base path " + basePath + ".", e);
         }
 
+        RestClient.getInstance().configureRateLimits(basePath.resolve("rate-limits.json"));
+
         this.repository = new Repository(basePath.resolve("repository"));
         this.updateChecker = new UpdateChecker(basePath.getParent(), RestClient.getInstance());
         this.compatibilityChecker = new CompatibilityChecker(basePath, RestClient.getInstance());
@@ -90,6 +97,7 @@ public class ModInstaller {
     public void addProgressListener(ProgressListener listener) {
         this.progressListeners.addListener(listener);
         this.repository.addProgressListener(listener);
+        RestClient.getInstance().addProgressListener(listener);
     }
 
     public void addSourcesChangedListener(SourcesChangedListener listener) {
@@ -109,11 +117,11 @@ public class ModInstaller {
     }
 
     public Installations getInstallations() {
-        return this.installations;
+        return this.publishedInstallations;
     }
 
     public String getInstalledVersion(String name) {
-        Installations modInstallations = this.installations.getInstallations(name);
+        Installations modInstallations = this.publishedInstallations.getInstallations(name);
         if (modInstallations.isEmpty()) {
             return null;
         }
@@ -138,13 +146,11 @@ public class ModInstaller {
     }
 
     public ModDefinitions getRequiredBy(ModDefinition modDefinition) {
-        return this.repository.getLatestVersions().stream().filter(definition -> definition.dependsOn(modDefinition.getName())).collect(
-                ModDefinitions.toModDefinitions());
+        return this.repository.getDependencyGraph().getDependents(modDefinition.getName());
     }
 
     public ModDefinitions getRequires(ModDefinition modDefinition) {
-        return this.repository.getLatestVersions().stream().filter(definition -> modDefinition.dependsOn(definition.getName())).collect(
-                ModDefinitions.toModDefinitions());
+        return this.repository.getDependencyGraph().getDependencies(modDefinition);
     }
 
     public Sources getSources() {
@@ -166,6 +172,9 @@ public class ModInstaller {
     public void initialize() {
         this.progressListeners.started("Initializing");
         this.progressListeners.stepStarted("Mod-Installer", StepType.INITIALIZE);
+        if (this.isOffline()) {
+            this.progressListeners.detail("Working offline");
+        }
 
         this.initializeUpdateChecker();
         this.progressListeners.stepProgress(1, 5);
@@ -207,7 +216,7 @@ public class ModInstaller {
     }
 
     public boolean isExactVersionInstalled(ModDefinition modDefinition) {
-        return this.installations.contains(modDefinition);
+        return this.publishedInstallations.contains(modDefinition);
     }
 
     public boolean isNewVersionAvailable() {
@@ -215,13 +224,17 @@ public class ModInstaller {
     }
 
     public boolean isNoVersionInstalled(ModDefinition modDefinition) {
-        return this.installations.getInstallations(modDefinition.getName()).isEmpty();
+        return this.publishedInstallations.getInstallations(modDefinition.getName()).isEmpty();
+    }
+
+    public boolean isOffline() {
+        return RestClient.getInstance().isOffline();
     }
 
     public boolean isOlderVersionInstalled(ModDefinition modDefinition) {
         Version modVersion = Version.parse(modDefinition.getVersion());
 
-        Installations installed = this.installations.getInstallations(modDefinition.getName());
+        Installations installed = this.publishedInstallations.getInstallations(modDefinition.getName());
         for (Installation eachInstalled : installed) {
             if (Version.parse(eachInstalled.getVersion()).compareTo(modVersion) < 0) {
                 return true;
@@ -232,7 +245,17 @@ public class ModInstaller {
     }
 
     public boolean isRequiredByInstallation(ModDefinition modDefinition) {
-        return this.getRequiredBy(modDefinition).stream().filter(this::isAnyVersionInstalled).count() > 0;
+        DependencyGraph dependencyGraph = this.repository.getDependencyGraph();
+        Installations installed = this.publishedInstallations;
+
+        // both are immutable once published, so a stale result is recognized by identity alone
+        RequiredByInstallations current = this.requiredByInstallations;
+        if (current == null || !current.isBasedOn(dependencyGraph, installed)) {
+            current = new RequiredByInstallations(dependencyGraph, installed);
+            this.requiredByInstallations = current;
+        }
+
+        return current.contains(modDefinition.getName());
     }
 
     public boolean isSourceMigrationRequired() {
@@ -254,6 +277,11 @@ public class ModInstaller {
     public void refreshSources() {
         this.repository.refreshSources();
         this.compatibilityChecker.invalidate();
+
+        this.repository.prefetchAssets(this.repository.getLatestVersions()
+                .stream()
+                .filter(this::isOlderVersionInstalled)
+                .collect(Collectors.toList()));
     }
 
     public void registerSource(String definition) {
@@ -271,12 +299,15 @@ public class ModInstaller {
     public void removeProgressListener(ProgressListener listener) {
         this.progressListeners.removeListener(listener);
         this.repository.removeProgressListener(listener);
+        RestClient.getInstance().removeProgressListener(listener);
     }
 
     public Resolution resolveInstallation(ModDefinition modDefinition) {
-        DependencyResolver dependencyResolver = new DependencyResolver(this.repository, this.installations);
+        return this.resolveInstallation(modDefinition, this.publishedInstallations);
+    }
 
-        return dependencyResolver.resolve(modDefinition);
+    public void setOffline(boolean offline) {
+        RestClient.getInstance().setOffline(offline);
     }
 
     public void startUpdate() throws IOException {
@@ -295,7 +326,7 @@ public class ModInstaller {
     }
 
     private boolean canBeDeleted(Path path, String asset) {
-        if (!this.installations.getInstallationsWithAsset(asset).isEmpty()) {
+        if (this.installations.isAssetReferenced(asset)) {
             return false;
         }
 
@@ -311,17 +342,13 @@ public class ModInstaller {
     }
 
     private String copyAsset(InputStream inputStream, String relativePath, Path targetDirectory) {
-        Path targetPath = targetDirectory.resolve(relativePath);
-        String assetPath = this.getModsDirectory().relativize(targetPath).toString();
-
-        if (assetPath.startsWith("..")) {
-            this.progressListeners.detail("WARNING: Entry '" + relativePath + "' is invalid and will be ignored!");
+        String assetPath = this.getAssetPath(relativePath, targetDirectory);
+        if (assetPath == null) {
             return null;
         }
 
-        this.progressListeners.detail(assetPath);
-
         try {
+            Path targetPath = targetDirectory.resolve(relativePath);
             Files.createDirectories(targetPath.getParent());
             Files.copy(inputStream, targetPath, StandardCopyOption.REPLACE_EXISTING);
             return assetPath;
@@ -330,9 +357,29 @@ public class ModInstaller {
         }
     }
 
-    private String copyAsset(Path sourcePath, Path targetDirectory) {
-        try (InputStream inputStream = Files.newInputStream(sourcePath)) {
-            return this.copyAsset(inputStream, sourcePath.getFileName().toString(), targetDirectory);
+    private String copyAsset(Path sourcePath, String fileName, Path targetDirectory) {
+        String assetPath = this.getAssetPath(fileName, targetDirectory);
+        if (assetPath == null) {
+            return null;
+        }
+
+        Path targetPath = targetDirectory.resolve(fileName);
+        try {
+            Files.createDirectories(targetPath.getParent());
+        } catch (IOException e) {
+            throw new ModInstallerException("Failed to install asset " + fileName + ".", e);
+        }
+
+        // let the file system copy between the channels instead of pumping the bytes through the heap
+        try (FileChannel source = FileChannel.open(sourcePath, StandardOpenOption.READ);
+                FileChannel target = FileChannel.open(targetPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)) {
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                position += source.transferTo(position, size - position, target);
+            }
+            return assetPath;
         } catch (IOException e) {
             throw new ModInstallerException("Failed not install asset " + sourcePath + ".", e);
         }
@@ -385,6 +432,18 @@ public class ModInstaller {
         this.progressListeners.stepProgress(assets.size(), assets.size());
     }
 
+    private String getAssetPath(String relativePath, Path targetDirectory) {
+        String result = this.getModsDirectory().relativize(targetDirectory.resolve(relativePath)).toString();
+
+        if (result.startsWith("..")) {
+            this.progressListeners.detail("WARNING: Entry '" + relativePath + "' is invalid and will be ignored!");
+            return null;
+        }
+
+        this.progressListeners.detail(result);
+        return result;
+    }
+
     private Path getInstallationsPath() {
         return this.basePath.resolve("installations.json");
     }
@@ -410,8 +469,11 @@ public class ModInstaller {
             Installations savedInstallations = this.readInstallations();
             if (!savedInstallations.isEmpty()) {
                 this.installations.addInstallations(savedInstallations);
+                this.publishInstallations();
                 this.installationsChangedListeners.changed();
             }
+
+            this.repository.setInstallations(this.publishedInstallations);
         } catch (Exception e) {
             this.progressListeners.error(e.toString());
         }
@@ -462,7 +524,7 @@ public class ModInstaller {
 
         try {
             if (shouldCopy(asset)) {
-                installation.addAsset(this.copyAsset(sourcePath, targetDirectory));
+                installation.addAsset(this.copyAsset(sourcePath, Repository.getFileName(asset), targetDirectory));
                 return;
             }
 
@@ -501,7 +563,6 @@ public class ModInstaller {
         installation.setVersion(modDefinition.getVersion());
         installation.setSourceDefinition(modDefinition.getSourceDefinition());
 
-        this.repository.downloadAssets(modDefinition);
         Asset[] assets = modDefinition.getAssets();
 
         this.progressListeners.stepStarted(modDefinition.getDisplayName(), StepType.INSTALL);
@@ -516,7 +577,7 @@ public class ModInstaller {
     }
 
     private void performInstall(ModDefinition modDefinition) {
-        Resolution resolution = this.resolveInstallation(modDefinition);
+        Resolution resolution = this.resolveInstallation(modDefinition, this.installations);
         if (resolution.hasMissingDependencies()) {
             throw new MissingDependencyException(
                     "Could not resolve dependency to " + resolution.getMissingDependencies() + ". No matching version found.",
@@ -530,16 +591,23 @@ public class ModInstaller {
                     resolution.getUnresolvableDependencies());
         }
 
-        for (Installation eachUninstall : resolution.getUninstall()) {
-            this.uninstall(eachUninstall);
-        }
+        try (DownloadScheduler downloads = this.repository.downloadAssets(resolution.getInstall())) {
+            for (Installation eachUninstall : resolution.getUninstall()) {
+                this.uninstall(eachUninstall);
+            }
 
-        for (ModDefinition eachModDefinition : resolution.getInstall()) {
-            Installation installation = this.installAssets(eachModDefinition);
-            this.installations.addInstallation(installation);
+            for (ModDefinition eachModDefinition : resolution.getInstall()) {
+                downloads.await(eachModDefinition);
+                Installation installation = this.installAssets(eachModDefinition);
+                this.installations.addInstallation(installation);
+            }
         }
     }
 
+    private void publishInstallations() {
+        this.publishedInstallations = Installations.unmodifiable(this.installations);
+    }
+
     private Installations readInstallations() {
         try {
             Path installedPath = this.getInstallationsPath();
@@ -553,6 +621,12 @@ public class ModInstaller {
         return new Installations();
     }
 
+    private Resolution resolveInstallation(ModDefinition modDefinition, Installations currentInstallations) {
+        DependencyResolver dependencyResolver = new DependencyResolver(this.repository, currentInstallations);
+
+        return dependencyResolver.resolve(modDefinition);
+    }
+
     private void uninstall(Installation installation) {
         if (!this.installations.contains(installation)) {
             throw new ModInstallerException("Requested mod is not installed.");
@@ -566,9 +640,34 @@ public class ModInstaller {
     private void writeInstallations() {
         try {
             JsonUtils.serialize(this.getInstallationsPath(), this.installations);
+            this.publishInstallations();
+            this.repository.setInstallations(this.publishedInstallations);
             this.installationsChangedListeners.changed();
         } catch (IOException e) {
             throw new ModInstallerException("Could not save installed mods.", e);
         }
     }
+
+    private static class RequiredByInstallations {
+
+        private final DependencyGraph dependencyGraph;
+        private final Installations installations;
+        private final Set<String> names;
+
+        public RequiredByInstallations(DependencyGraph dependencyGraph, Installations installations) {
+            super();
+
+            this.dependencyGraph = dependencyGraph;
+            this.installations = installations;
+            this.names = dependencyGraph.getRequiredNames(installations.getNames());
+        }
+
+        public boolean contains(String name) {
+            return this.names.contains(name);
+        }
+
+        public boolean isBasedOn(DependencyGraph otherDependencyGraph, Installations otherInstallations) {
+            return this.dependencyGraph == otherDependencyGraph && this.installations == otherInstallations;
+        }
+    }
 }
@@ -10,6 +10,7 @@ public interface ProgressListener {
 
     void stepError(String error);
 
+    // DOWNLOAD steps report KiB, so files above 2 GiB fit
     void stepProgress(int completed, int total);
 
     void stepStarted(String step, StepType stepType);
@@ -0,0 +1,10 @@
+package me.wulfmarius.modinstaller;
+
+public interface TextReference {
+
+    String get();
+
+    String getDigest();
+
+    String getUncached();
+}
@@ -71,10 +71,15 @@ public class CompatibilityChecker {
     }
 
     private void fetchTldVersions() {
+        if (this.restClient.isOffline()) {
+            return;
+        }
+
         try {
-            ResponseEntity<String> response = this.restClient.fetch(TLD_VERSIONS_URL, this.state.getEtag());
+            ResponseEntity<CompatibilityVersions> response = this.restClient.fetch(TLD_VERSIONS_URL, this.state.getEtag(),
+                    CompatibilityVersions.class, null);
             if (response.getStatusCode().is2xxSuccessful()) {
-                this.state.setCompatibilityVersions(this.restClient.deserialize(response, CompatibilityVersions.class, null));
+                this.state.setCompatibilityVersions(response.getBody());
                 this.state.setEtag(response.getHeaders().getETag());
                 this.currentCompatibilityVersion = this.state.getCompatibilityVersions().floor(this.parsedCurrentVersion);
             }
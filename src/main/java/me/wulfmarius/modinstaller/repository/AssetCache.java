@@ -0,0 +1,83 @@
+package me.wulfmarius.modinstaller.repository;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import me.wulfmarius.modinstaller.ModDefinition;
+
+public class AssetCache {
+
+    private static final long DEFAULT_BUDGET = 2L * 1024 * 1024 * 1024;
+
+    private final AssetStore assetStore;
+    private final AtomicBoolean evictionScheduled = new AtomicBoolean();
+    private final Map<String, Integer> pins = new HashMap<>();
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "asset-cache-eviction");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private volatile long budget = Long.getLong("REPOSITORY_CACHE_BUDGET", DEFAULT_BUDGET);
+    private volatile Predicate<AssetIndexEntry> installed = entry -> false;
+
+    public AssetCache(AssetStore assetStore) {
+        super();
+
+        this.assetStore = assetStore;
+    }
+
+    private static String getKey(String name, String version) {
+        return name + "/" + version;
+    }
+
+    public long getBudget() {
+        return this.budget;
+    }
+
+    public synchronized boolean isPinned(AssetIndexEntry entry) {
+        return this.pins.containsKey(getKey(entry.getName(), entry.getVersion())) || this.installed.test(entry);
+    }
+
+    // keeps the assets of a mod definition until the matching unpin, no matter how long downloading and installing take
+    public synchronized void pin(ModDefinition modDefinition) {
+        this.pins.merge(getKey(modDefinition.getName(), modDefinition.getVersion()), 1, Integer::sum);
+    }
+
+    public void scheduleEviction() {
+        if (this.evictionScheduled.compareAndSet(false, true)) {
+            this.executorService.execute(this::evict);
+        }
+    }
+
+    public void setBudget(long budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("Cache budget must not be negative, but was " + budget + ".");
+        }
+
+        this.budget = budget;
+        this.scheduleEviction();
+    }
+
+    public void setInstalled(Predicate<AssetIndexEntry> installed) {
+        this.installed = installed;
+    }
+
+    public synchronized void unpin(ModDefinition modDefinition) {
+        this.pins.computeIfPresent(getKey(modDefinition.getName(), modDefinition.getVersion()),
+                (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void evict() {
+        this.evictionScheduled.set(false);
+
+        try {
+            this.assetStore.evict(this::isPinned, this.budget);
+        } catch (RepositoryException e) {
+            // leave the remaining assets for the next run
+        }
+    }
+}
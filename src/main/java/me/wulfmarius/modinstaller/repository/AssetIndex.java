@@ -0,0 +1,113 @@
+package me.wulfmarius.modinstaller.repository;
+
+import java.util.*;
+
+import com.fasterxml.jackson.annotation.*;
+
+public class AssetIndex {
+
+    @JsonIgnore
+    private Map<String, AssetIndexEntry> entries = new HashMap<>();
+
+    @JsonIgnore
+    private final Map<String, Set<String>> keysByDigest = new HashMap<>();
+
+    private static void addKey(Map<String, Set<String>> keys, String value, String key) {
+        if (value != null) {
+            keys.computeIfAbsent(value, v -> new LinkedHashSet<>()).add(key);
+        }
+    }
+
+    private static void removeKey(Map<String, Set<String>> keys, String value, String key) {
+        if (value == null) {
+            return;
+        }
+
+        Set<String> valueKeys = keys.get(value);
+        if (valueKeys != null) {
+            valueKeys.remove(key);
+            if (valueKeys.isEmpty()) {
+                keys.remove(value);
+            }
+        }
+    }
+
+    public Optional<AssetIndexEntry> findByDigest(String digest) {
+        return this.findFirst(this.keysByDigest.get(digest));
+    }
+
+    public AssetIndexEntry get(String key) {
+        return this.entries.get(key);
+    }
+
+    public Set<String> getDigests() {
+        return Collections.unmodifiableSet(this.keysByDigest.keySet());
+    }
+
+    @JsonProperty("entries")
+    public Map<String, AssetIndexEntry> getEntries() {
+        return Collections.unmodifiableMap(this.entries);
+    }
+
+    public List<AssetIndexEntry> getEntriesWithDigest(String digest) {
+        List<AssetIndexEntry> result = new ArrayList<>();
+
+        for (String eachKey : this.keysByDigest.getOrDefault(digest, Collections.emptySet())) {
+            result.add(this.entries.get(eachKey));
+        }
+
+        return result;
+    }
+
+    public boolean isReferenced(String digest) {
+        return this.keysByDigest.containsKey(digest);
+    }
+
+    public void put(String key, AssetIndexEntry entry) {
+        this.unindex(key, this.entries.put(key, entry));
+        this.index(key, entry);
+    }
+
+    public void remove(String key) {
+        this.unindex(key, this.entries.remove(key));
+    }
+
+    public void removeDigest(String digest) {
+        Set<String> keys = this.keysByDigest.get(digest);
+        if (keys == null) {
+            return;
+        }
+
+        for (String eachKey : new ArrayList<>(keys)) {
+            this.remove(eachKey);
+        }
+    }
+
+    @JsonProperty("entries")
+    public void setEntries(Map<String, AssetIndexEntry> entries) {
+        this.entries = entries;
+
+        this.keysByDigest.clear();
+        entries.forEach(this::index);
+    }
+
+    private Optional<AssetIndexEntry> findFirst(Set<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(this.entries.get(keys.iterator().next()));
+    }
+
+    private void index(String key, AssetIndexEntry entry) {
+        addKey(this.keysByDigest, entry.getDigest(), key);
+    }
+
+    private void unindex(String key, AssetIndexEntry entry) {
+        if (entry == null) {
+            return;
+        }
+
+        removeKey(this.keysByDigest, entry.getDigest(), key);
+    }
+}
@@ -0,0 +1,85 @@
+package me.wulfmarius.modinstaller.repository;
+
+import java.util.Date;
+
+import me.wulfmarius.modinstaller.*;
+
+public class AssetIndexEntry {
+
+    private String name;
+    private String version;
+    private String digest;
+    private String url;
+    private long size;
+    private long modified;
+    private Date lastAccess;
+
+    public static AssetIndexEntry create(ModDefinition modDefinition, Asset asset, String digest, long size) {
+        AssetIndexEntry result = new AssetIndexEntry();
+
+        result.setName(modDefinition.getName());
+        result.setVersion(modDefinition.getVersion());
+        result.setDigest(digest);
+        result.setUrl(asset.getUrl());
+        result.setSize(size);
+        result.setLastAccess(new Date());
+
+        return result;
+    }
+
+    public String getDigest() {
+        return this.digest;
+    }
+
+    public Date getLastAccess() {
+        return this.lastAccess;
+    }
+
+    public long getModified() {
+        return this.modified;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public long getSize() {
+        return this.size;
+    }
+
+    public String getUrl() {
+        return this.url;
+    }
+
+    public String getVersion() {
+        return this.version;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public void setLastAccess(Date lastAccess) {
+        this.lastAccess = lastAccess;
+    }
+
+    public void setModified(long modified) {
+        this.modified = modified;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,120 @@
+package me.wulfmarius.modinstaller.repository;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import me.wulfmarius.modinstaller.*;
+import me.wulfmarius.modinstaller.rest.BandwidthLimiter;
+
+public class AssetPrefetcher {
+
+    private static final long DEFAULT_BANDWIDTH = 512 * 1024;
+
+    private final Repository repository;
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "asset-prefetch");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private volatile boolean enabled = Boolean.getBoolean("PREFETCH_ASSETS");
+    private volatile long bandwidth = Long.getLong("PREFETCH_BANDWIDTH", DEFAULT_BANDWIDTH);
+
+    private Prefetch currentPrefetch;
+
+    public AssetPrefetcher(Repository repository) {
+        super();
+
+        this.repository = repository;
+    }
+
+    public synchronized void cancel() {
+        if (this.currentPrefetch != null) {
+            this.currentPrefetch.cancel();
+            this.currentPrefetch = null;
+        }
+    }
+
+    public long getBandwidth() {
+        return this.bandwidth;
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public synchronized void prefetch(List<ModDefinition> modDefinitions) {
+        if (!this.enabled) {
+            return;
+        }
+
+        this.cancel();
+
+        this.currentPrefetch = new Prefetch(new ArrayList<>(modDefinitions), new BandwidthLimiter(this.bandwidth));
+        this.executorService.execute(this.currentPrefetch);
+    }
+
+    public void setBandwidth(long bandwidth) {
+        this.bandwidth = bandwidth;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+
+        if (!enabled) {
+            this.cancel();
+        }
+    }
+
+    private class Prefetch implements Runnable {
+
+        private final List<ModDefinition> modDefinitions;
+        private final BandwidthLimiter bandwidthLimiter;
+        private final ProgressListeners progressListeners = new ProgressListeners();
+
+        private volatile boolean cancelled;
+
+        public Prefetch(List<ModDefinition> modDefinitions, BandwidthLimiter bandwidthLimiter) {
+            super();
+
+            this.modDefinitions = modDefinitions;
+            this.bandwidthLimiter = bandwidthLimiter;
+        }
+
+        public void cancel() {
+            this.cancelled = true;
+            // an install may be waiting for the asset that is currently being fetched
+            this.bandwidthLimiter.setBytesPerSecond(0);
+        }
+
+        @Override
+        public void run() {
+            AssetCache assetCache = AssetPrefetcher.this.repository.getAssetCache();
+            this.modDefinitions.forEach(assetCache::pin);
+
+            try {
+                for (ModDefinition eachModDefinition : this.modDefinitions) {
+                    if (eachModDefinition.getAssets() == null) {
+                        continue;
+                    }
+
+                    for (Asset eachAsset : eachModDefinition.getAssets()) {
+                        if (this.cancelled) {
+                            return;
+                        }
+
+                        try {
+                            AssetPrefetcher.this.repository.downloadAsset(eachModDefinition, eachAsset, this.progressListeners,
+                                    this.bandwidthLimiter);
+                        } catch (RuntimeException e) {
+                            // the install will try again and report the problem
+                        }
+                    }
+                }
+            } finally {
+                this.modDefinitions.forEach(assetCache::unpin);
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package me.wulfmarius.modinstaller.repository;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Predicate;
+
+import org.springframework.util.StringUtils;
+
+import me.wulfmarius.modinstaller.*;
+import me.wulfmarius.modinstaller.utils.*;
+
+public class AssetStore {
+
+    private final Path basePath;
+    private final AssetIndex index;
+
+    private boolean accessChanged;
+
+    public AssetStore(Path basePath) {
+        super();
+
+        this.basePath = basePath;
+        this.index = this.readIndex();
+    }
+
+    public static String getKey(ModDefinition modDefinition, Asset asset) {
+        return modDefinition.getName() + "/" + modDefinition.getVersion() + "/" + Repository.getFileName(asset);
+    }
+
+    private static Date getLastAccess(List<AssetIndexEntry> entries) {
+        return entries.stream().map(AssetIndexEntry::getLastAccess).filter(Objects::nonNull).max(Date::compareTo).orElse(new Date(0));
+    }
+
+    // only good enough to skip a download, findVerified hashes the object before it gets installed
+    private static boolean isUnchanged(AssetIndexEntry entry, Path objectPath) throws IOException {
+        if (entry.getModified() == 0 || Files.notExists(objectPath)) {
+            return false;
+        }
+
+        return Files.size(objectPath) == entry.getSize() && Files.getLastModifiedTime(objectPath).toMillis() == entry.getModified();
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public synchronized void add(ModDefinition modDefinition, Asset asset, Path file, String digest) {
+        try {
+            String expectedDigest = asset.getSha256();
+            if (!StringUtils.isEmpty(expectedDigest) && !expectedDigest.equalsIgnoreCase(digest)) {
+                Files.deleteIfExists(file);
+                throw new RepositoryException(
+                        "Checksum mismatch for " + asset.getUrl() + ": Expected " + expectedDigest + ", but received " + digest + ".");
+            }
+
+            Path objectPath = this.getObjectPath(digest);
+            if (Files.exists(objectPath)) {
+                // a coalesced download may already have been stored by another caller
+                Files.deleteIfExists(file);
+            } else {
+                Files.createDirectories(objectPath.getParent());
+                move(file, objectPath);
+            }
+
+            this.index.put(getKey(modDefinition, asset), this.createEntry(modDefinition, asset, digest));
+            this.writeIndex();
+        } catch (IOException e) {
+            throw new RepositoryException("Could not store asset " + asset.getUrl() + ".", e);
+        }
+    }
+
+    public synchronized int evict(Predicate<AssetIndexEntry> pinned, long budget) {
+        long size = this.getSize();
+
+        List<String> candidates = new ArrayList<>();
+        Map<String, Date> lastAccess = new HashMap<>();
+        for (String eachDigest : this.index.getDigests()) {
+            List<AssetIndexEntry> entries = this.index.getEntriesWithDigest(eachDigest);
+            if (entries.stream().noneMatch(pinned)) {
+                candidates.add(eachDigest);
+                lastAccess.put(eachDigest, getLastAccess(entries));
+            }
+        }
+
+        candidates.sort(Comparator.comparing(lastAccess::get));
+
+        int evicted = 0;
+        try {
+            for (String eachDigest : candidates) {
+                if (size <= budget) {
+                    break;
+                }
+
+                size -= this.index.getEntriesWithDigest(eachDigest).get(0).getSize();
+                Files.deleteIfExists(this.getObjectPath(eachDigest));
+                this.index.removeDigest(eachDigest);
+                evicted++;
+            }
+        } catch (IOException e) {
+            throw new RepositoryException("Could not evict assets.", e);
+        } finally {
+            if (evicted > 0 || this.accessChanged) {
+                this.writeIndex();
+            }
+        }
+
+        return evicted;
+    }
+
+    public synchronized Optional<Path> find(ModDefinition modDefinition, Asset asset) {
+        return Optional.ofNullable(this.index.get(getKey(modDefinition, asset)))
+                .map(AssetIndexEntry::getDigest)
+                .map(this::getObjectPath)
+                .filter(Files::exists);
+    }
+
+    public Optional<Path> findVerified(ModDefinition modDefinition, Asset asset) {
+        AssetIndexEntry entry;
+        synchronized (this) {
+            entry = this.index.get(getKey(modDefinition, asset));
+        }
+
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        Path objectPath = this.getObjectPath(entry.getDigest());
+        try {
+            if (this.verifyContent(entry, objectPath)) {
+                return Optional.of(objectPath);
+            }
+
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new RepositoryException("Could not verify asset " + objectPath + ".", e);
+        }
+    }
+
+    public Path getDownloadPath(ModDefinition modDefinition, Asset asset) {
+        return this.basePath.resolve("downloads")
+                .resolve(modDefinition.getName())
+                .resolve(modDefinition.getVersion())
+                .resolve(Repository.getFileName(asset));
+    }
+
+    public Path getObjectPath(String digest) {
+        return this.basePath.resolve("objects").resolve(digest.substring(0, 2)).resolve(digest);
+    }
+
+    public synchronized long getSize() {
+        return this.index.getDigests().stream().mapToLong(digest -> this.index.getEntriesWithDigest(digest).get(0).getSize()).sum();
+    }
+
+    public boolean link(ModDefinition modDefinition, Asset asset) {
+        Path legacyPath = this.basePath.resolve(modDefinition.getName())
+                .resolve(modDefinition.getVersion())
+                .resolve(Repository.getFileName(asset));
+        if (Files.exists(legacyPath)) {
+            try {
+                this.add(modDefinition, asset, legacyPath, HashUtils.sha256(legacyPath));
+                return true;
+            } catch (IOException e) {
+                throw new RepositoryException("Could not import asset " + legacyPath + ".", e);
+            }
+        }
+
+        // without a declared digest there is no telling whether the same URL still serves the same file
+        if (StringUtils.isEmpty(asset.getSha256())) {
+            return false;
+        }
+
+        synchronized (this) {
+            Optional<AssetIndexEntry> existing = this.index.findByDigest(asset.getSha256().toLowerCase());
+            if (!existing.filter(entry -> Files.exists(this.getObjectPath(entry.getDigest()))).isPresent()) {
+                return false;
+            }
+
+            String digest = existing.get().getDigest();
+            try {
+                this.index.put(getKey(modDefinition, asset), this.createEntry(modDefinition, asset, digest));
+            } catch (IOException e) {
+                throw new RepositoryException("Could not link asset " + asset.getUrl() + ".", e);
+            }
+
+            this.writeIndex();
+            return true;
+        }
+    }
+
+    public boolean verify(ModDefinition modDefinition, Asset asset) {
+        AssetIndexEntry entry;
+        synchronized (this) {
+            entry = this.index.get(getKey(modDefinition, asset));
+        }
+
+        if (entry == null) {
+            return false;
+        }
+
+        Path objectPath = this.getObjectPath(entry.getDigest());
+        try {
+            if (isUnchanged(entry, objectPath)) {
+                synchronized (this) {
+                    // access times are written with the next change or eviction run
+                    entry.setLastAccess(new Date());
+                    this.accessChanged = true;
+                }
+
+                return true;
+            }
+
+            // size or modification time differ from the index, so only the content can tell
+            return this.verifyContent(entry, objectPath);
+        } catch (IOException e) {
+            throw new RepositoryException("Could not verify asset " + objectPath + ".", e);
+        }
+    }
+
+    private AssetIndexEntry createEntry(ModDefinition modDefinition, Asset asset, String digest) throws IOException {
+        Path objectPath = this.getObjectPath(digest);
+
+        AssetIndexEntry result = AssetIndexEntry.create(modDefinition, asset, digest, Files.size(objectPath));
+        result.setModified(Files.getLastModifiedTime(objectPath).toMillis());
+        return result;
+    }
+
+    private Path getIndexPath() {
+        return this.basePath.resolve("asset-index.json");
+    }
+
+    private AssetIndex readIndex() {
+        try {
+            Path indexPath = this.getIndexPath();
+            if (Files.exists(indexPath)) {
+                return JsonUtils.deserialize(indexPath, AssetIndex.class);
+            }
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to read asset index.", e);
+        }
+
+        return new AssetIndex();
+    }
+
+    private boolean verifyContent(AssetIndexEntry entry, Path objectPath) throws IOException {
+        if (Files.exists(objectPath) && entry.getDigest().equals(HashUtils.sha256(objectPath))) {
+            long size = Files.size(objectPath);
+            long modified = Files.getLastModifiedTime(objectPath).toMillis();
+
+            synchronized (this) {
+                for (AssetIndexEntry eachEntry : this.index.getEntriesWithDigest(entry.getDigest())) {
+                    eachEntry.setSize(size);
+                    eachEntry.setModified(modified);
+                }
+
+                entry.setLastAccess(new Date());
+                this.writeIndex();
+            }
+
+            return true;
+        }
+
+        synchronized (this) {
+            Files.deleteIfExists(objectPath);
+            this.index.removeDigest(entry.getDigest());
+            this.writeIndex();
+        }
+
+        return false;
+    }
+
+    private void writeIndex() {
+        try {
+            JsonUtils.serialize(this.getIndexPath(), this.index);
+            this.accessChanged = false;
+        } catch (IOException e) {
+            throw new RepositoryException("Could not save asset index.", e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package me.wulfmarius.modinstaller.repository;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import me.wulfmarius.modinstaller.*;
+
+public class Catalog {
+
+    // bookkeeping of the writer, only touched while holding the lock in update
+    // keyed by source definition, so a refreshed copy of a source replaces the one it was built from
+    private final Map<String, List<ModDefinition>> definitionsBySource = new HashMap<>();
+    private final Map<String, Map<String, List<ModDefinition>>> definitionsByNameAndSource = new HashMap<>();
+    private final Map<String, List<ModDefinition>> latestVersionsBySource = new LinkedHashMap<>();
+
+    // readers only ever see complete versions, published in one volatile write
+    private volatile Snapshot snapshot = new Snapshot(0, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyList());
+
+    private static Set<String> getNames(Collection<ModDefinition> modDefinitions) {
+        return modDefinitions.stream().map(ModDefinition::getName).collect(Collectors.toSet());
+    }
+
+    public DependencyGraph getDependencyGraph() {
+        return this.snapshot.getDependencyGraph();
+    }
+
+    public List<ModDefinition> getLatestVersions() {
+        return this.snapshot.getLatestVersions();
+    }
+
+    public ModDefinitions getMatching(ModDependency modDependency) {
+        ModDefinitions result = new ModDefinitions();
+
+        for (ModDefinition eachModDefinition : this.getModDefinitions(modDependency.getName())) {
+            if (eachModDefinition.satisfies(modDependency)) {
+                result.addModDefinition(eachModDefinition);
+            }
+        }
+
+        return result;
+    }
+
+    public Optional<ModDefinition> getModDefinition(String name, String version) {
+        return Optional.ofNullable(this.snapshot.getDefinitionsByVersion(name).get(version));
+    }
+
+    public List<ModDefinition> getModDefinitions(String name) {
+        return this.snapshot.getDefinitions(name);
+    }
+
+    public long getVersion() {
+        return this.snapshot.getVersion();
+    }
+
+    public void update(Source source) {
+        this.update(Collections.singletonList(source));
+    }
+
+    public synchronized void update(Collection<Source> sources) {
+        if (sources.isEmpty()) {
+            return;
+        }
+
+        Snapshot current = this.snapshot;
+        Map<String, List<ModDefinition>> definitionsByName = new HashMap<>(current.definitionsByName);
+        Map<String, Map<String, ModDefinition>> definitionsByNameAndVersion = new HashMap<>(current.definitionsByNameAndVersion);
+
+        Set<String> changedNames = new LinkedHashSet<>();
+        for (Source eachSource : sources) {
+            List<ModDefinition> modDefinitions = eachSource.getModDefinitionStream().collect(Collectors.toList());
+            List<ModDefinition> previousModDefinitions = this.definitionsBySource.put(eachSource.getDefinition(), modDefinitions);
+
+            Map<String, List<ModDefinition>> namedModDefinitions = modDefinitions.stream()
+                    .collect(Collectors.groupingBy(ModDefinition::getName, LinkedHashMap::new, Collectors.toList()));
+            if (previousModDefinitions != null) {
+                for (String eachName : getNames(previousModDefinitions)) {
+                    if (!namedModDefinitions.containsKey(eachName)) {
+                        this.setDefinitions(eachName, eachSource.getDefinition(), Collections.emptyList());
+                        changedNames.add(eachName);
+                    }
+                }
+            }
+
+            namedModDefinitions.forEach((name, definitions) -> this.setDefinitions(name, eachSource.getDefinition(), definitions));
+            changedNames.addAll(namedModDefinitions.keySet());
+
+            this.latestVersionsBySource.put(eachSource.getDefinition(), eachSource.getLatestVersions().collect(Collectors.toList()));
+        }
+
+        // a name provided by several sources of the batch is merged only once
+        for (String eachName : changedNames) {
+            this.updateName(eachName, definitionsByName, definitionsByNameAndVersion);
+        }
+
+        // flattened once per batch, so adding n sources no longer copies the list n times
+        List<ModDefinition> latestVersions = new ArrayList<>();
+        this.latestVersionsBySource.values().forEach(latestVersions::addAll);
+
+        this.snapshot = new Snapshot(current.getVersion() + 1, definitionsByName, definitionsByNameAndVersion, latestVersions);
+    }
+
+    private void setDefinitions(String name, String sourceDefinition, List<ModDefinition> modDefinitions) {
+        Map<String, List<ModDefinition>> definitionsBySource = this.definitionsByNameAndSource.computeIfAbsent(name,
+                key -> new LinkedHashMap<>());
+        if (modDefinitions.isEmpty()) {
+            definitionsBySource.remove(sourceDefinition);
+        } else {
+            definitionsBySource.put(sourceDefinition, modDefinitions);
+        }
+
+        if (definitionsBySource.isEmpty()) {
+            this.definitionsByNameAndSource.remove(name);
+        }
+    }
+
+    private void updateName(String name, Map<String, List<ModDefinition>> definitionsByName,
+            Map<String, Map<String, ModDefinition>> definitionsByNameAndVersion) {
+        Map<String, List<ModDefinition>> definitionsBySource = this.definitionsByNameAndSource.get(name);
+        if (definitionsBySource == null) {
+            definitionsByName.remove(name);
+            definitionsByNameAndVersion.remove(name);
+            return;
+        }
+
+        // the first source providing a version wins, just like a scan over all sources would
+        Map<String, ModDefinition> definitionsByVersion = new HashMap<>();
+        List<ModDefinition> namedModDefinitions = new ArrayList<>();
+        for (List<ModDefinition> eachModDefinitions : definitionsBySource.values()) {
+            for (ModDefinition eachModDefinition : eachModDefinitions) {
+                if (definitionsByVersion.putIfAbsent(eachModDefinition.getVersion(), eachModDefinition) == null) {
+                    namedModDefinitions.add(eachModDefinition);
+                }
+            }
+        }
+
+        namedModDefinitions.sort(ModDefinition::latest);
+        definitionsByName.put(name, Collections.unmodifiableList(namedModDefinitions));
+        definitionsByNameAndVersion.put(name, Collections.unmodifiableMap(definitionsByVersion));
+    }
+
+    private static class Snapshot {
+
+        private final long version;
+        private final Map<String, List<ModDefinition>> definitionsByName;
+        private final Map<String, Map<String, ModDefinition>> definitionsByNameAndVersion;
+        private final List<ModDefinition> latestVersions;
+        private final DependencyGraph dependencyGraph;
+
+        public Snapshot(long version, Map<String, List<ModDefinition>> definitionsByName,
+                Map<String, Map<String, ModDefinition>> definitionsByNameAndVersion, List<ModDefinition> latestVersions) {
+            super();
+
+            this.version = version;
+            this.definitionsByName = Collections.unmodifiableMap(definitionsByName);
+            this.definitionsByNameAndVersion = Collections.unmodifiableMap(definitionsByNameAndVersion);
+            this.latestVersions = Collections.unmodifiableList(latestVersions);
+            this.dependencyGraph = DependencyGraph.create(latestVersions);
+        }
+
+        public List<ModDefinition> getDefinitions(String name) {
+            return this.definitionsByName.getOrDefault(name, Collections.emptyList());
+        }
+
+        public Map<String, ModDefinition> getDefinitionsByVersion(String name) {
+            return this.definitionsByNameAndVersion.getOrDefault(name, Collections.emptyMap());
+        }
+
+        public DependencyGraph getDependencyGraph() {
+            return this.dependencyGraph;
+        }
+
+        public List<ModDefinition> getLatestVersions() {
+            return this.latestVersions;
+        }
+
+        public long getVersion() {
+            return this.version;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package me.wulfmarius.modinstaller.repository;
+
+import java.util.*;
+
+import me.wulfmarius.modinstaller.*;
+
+public class DependencyGraph {
+
+    private final Map<String, ModDefinitions> latestVersions = new HashMap<>();
+    private final Map<String, ModDefinitions> dependents = new HashMap<>();
+
+    public static DependencyGraph create(List<ModDefinition> latestVersions) {
+        DependencyGraph result = new DependencyGraph();
+
+        for (ModDefinition eachLatestVersion : latestVersions) {
+            result.latestVersions.computeIfAbsent(eachLatestVersion.getName(), name -> new ModDefinitions())
+                    .addModDefinition(eachLatestVersion);
+
+            eachLatestVersion.getDependenciesStream()
+                    .map(ModDependency::getName)
+                    .distinct()
+                    .map(name -> result.dependents.computeIfAbsent(name, key -> new ModDefinitions()))
+                    .forEach(dependents -> dependents.addModDefinition(eachLatestVersion));
+        }
+
+        return result;
+    }
+
+    private static ModDefinitions copy(ModDefinitions modDefinitions) {
+        ModDefinitions result = new ModDefinitions();
+
+        if (modDefinitions != null) {
+            result.addModDefinitions(modDefinitions);
+        }
+
+        return result;
+    }
+
+    public ModDefinitions getDependencies(ModDefinition modDefinition) {
+        ModDefinitions result = new ModDefinitions();
+
+        modDefinition.getDependenciesStream()
+                .map(ModDependency::getName)
+                .distinct()
+                .map(this.latestVersions::get)
+                .filter(Objects::nonNull)
+                .forEach(result::addModDefinitions);
+
+        return result;
+    }
+
+    public ModDefinitions getDependents(String name) {
+        return copy(this.dependents.get(name));
+    }
+
+    public Set<String> getRequiredNames(Iterable<String> names) {
+        Set<String> result = new HashSet<>();
+
+        for (String eachName : names) {
+            ModDefinitions modDefinitions = this.latestVersions.get(eachName);
+            if (modDefinitions == null) {
+                continue;
+            }
+
+            for (ModDefinition eachModDefinition : modDefinitions) {
+                eachModDefinition.getDependenciesStream().map(ModDependency::getName).forEach(result::add);
+            }
+        }
+
+        return result;
+    }
+}
@@ -1,29 +1,56 @@
 package me.wulfmarius.modinstaller.repository;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.*;
 import java.nio.file.*;
+import java.security.MessageDigest;
+import java.text.MessageFormat;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.*;
 
-import org.springframework.http.MediaType;
+import org.springframework.http.*;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.util.StreamUtils;
 import org.springframework.web.client.ResponseExtractor;
 
 import me.wulfmarius.modinstaller.ProgressListeners;
-import me.wulfmarius.modinstaller.utils.StringUtils;
+import me.wulfmarius.modinstaller.rest.BandwidthLimiter;
+import me.wulfmarius.modinstaller.utils.*;
 
 public class DownloadResponseExtractor implements ResponseExtractor<String> {
 
-    private final Path targetFile;
+    private static final Pattern CONTENT_RANGE_PATTERN = Pattern.compile("bytes (\\d+)-\\d+/(?:\\d+|\\*)");
+
+    private static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+    private static final long DEFAULT_STALL_TIMEOUT = 30000;
+    private static final long MINIMUM_BYTES_PER_SECOND = 1024;
+
+    private final PartialDownload partialDownload;
     private final ProgressListeners progressListeners;
+    private final BandwidthLimiter bandwidthLimiter;
+    private final int bufferSize;
+    private final long stallTimeout = Long.getLong("DOWNLOAD_STALL_TIMEOUT", DEFAULT_STALL_TIMEOUT);
+
+    public DownloadResponseExtractor(PartialDownload partialDownload, ProgressListeners progressListeners) {
+        this(partialDownload, progressListeners, null);
+    }
 
-    public DownloadResponseExtractor(Path targetFile, ProgressListeners progressListeners) {
+    public DownloadResponseExtractor(PartialDownload partialDownload, ProgressListeners progressListeners,
+            BandwidthLimiter bandwidthLimiter) {
+        this(partialDownload, progressListeners, bandwidthLimiter, Integer.getInteger("DOWNLOAD_BUFFER_SIZE", DEFAULT_BUFFER_SIZE));
+    }
+
+    public DownloadResponseExtractor(PartialDownload partialDownload, ProgressListeners progressListeners,
+            BandwidthLimiter bandwidthLimiter, int bufferSize) {
         super();
 
-        this.targetFile = targetFile;
+        this.partialDownload = partialDownload;
         this.progressListeners = progressListeners;
+        this.bandwidthLimiter = bandwidthLimiter;
+        this.bufferSize = Math.max(bufferSize, 4096);
     }
 
     private static String getBody(ClientHttpResponse response) throws IOException {
@@ -38,10 +65,17 @@ public class DownloadResponseExtractor implements ResponseExtractor<String> {
         return StandardCharsets.ISO_8859_1;
     }
 
+    private static void write(FileChannel fileChannel, byte[] buffer, int length) throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, length);
+        while (byteBuffer.hasRemaining()) {
+            fileChannel.write(byteBuffer);
+        }
+    }
+
     @Override
     public String extractData(ClientHttpResponse response) throws IOException {
         MediaType contentType = response.getHeaders().getContentType();
-        if (contentType.isCompatibleWith(MediaType.TEXT_HTML)) {
+        if (contentType != null && contentType.isCompatibleWith(MediaType.TEXT_HTML)) {
             String body = getBody(response);
             Pattern pattern = Pattern.compile("\\Qwindow.location.href=\"\\E(\\Qhttp://www.moddb.com/downloads/\\E.*?)\"",
                     Pattern.CASE_INSENSITIVE);
@@ -53,27 +87,112 @@ public class DownloadResponseExtractor implements ResponseExtractor<String> {
             throw new SourceException("Received unexpected text/html response.");
         }
 
+        long offset = this.getOffset(response);
+        if (offset == 0) {
+            this.partialDownload.start(response.getHeaders());
+        }
+
         long contentLength = response.getHeaders().getContentLength();
-        this.progressListeners.detail(StringUtils.formatByteCount(contentLength));
-
-        Files.createDirectories(this.targetFile.getParent());
-        long copied = 0;
-        this.progressListeners.stepProgress((int) copied, (int) contentLength);
-
-        byte[] buffer = new byte[4096];
-        try (InputStream inputStream = response.getBody(); OutputStream outputStream = Files.newOutputStream(this.targetFile)) {
-            while (true) {
-                int count = inputStream.read(buffer);
-                if (count == -1) {
-                    break;
+        long total = contentLength < 0 ? -1 : offset + contentLength;
+        if (offset == 0) {
+            this.progressListeners.detail(StringUtils.formatByteCount(total));
+        } else {
+            this.progressListeners.detail(StringUtils.formatByteCount(total) + ", resuming at " + StringUtils.formatByteCount(offset));
+        }
+
+        MessageDigest messageDigest = HashUtils.createSha256();
+        if (offset > 0) {
+            HashUtils.update(messageDigest, this.partialDownload.getPartFile());
+        }
+
+        long copied = offset;
+        this.progressListeners.stepProgress(StringUtils.toKiByteCount(copied), StringUtils.toKiByteCount(total));
+
+        OpenOption[] openOptions = offset == 0
+                ? new OpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE }
+                : new OpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.APPEND };
+
+        long started = System.nanoTime();
+        long windowStarted = started;
+        long windowBytes = 0;
+        byte[] buffer = new byte[this.bufferSize];
+        try (InputStream inputStream = response.getBody();
+                FileChannel fileChannel = FileChannel.open(this.partialDownload.getPartFile(), openOptions)) {
+            boolean endOfStream = false;
+            while (!endOfStream) {
+                // fill the whole buffer first, so the disk sees few large writes instead of many small ones
+                int filled = 0;
+                try {
+                    while (filled < buffer.length) {
+                        int count = inputStream.read(buffer, filled, buffer.length - filled);
+                        if (count == -1) {
+                            endOfStream = true;
+                            break;
+                        }
+
+                        filled += count;
+                        this.progressListeners.stepProgress(StringUtils.toKiByteCount(copied + filled),
+                                StringUtils.toKiByteCount(total));
+
+                        if (this.bandwidthLimiter != null) {
+                            this.bandwidthLimiter.acquire(count);
+                        }
+
+                        windowBytes += count;
+                        long windowNanos = System.nanoTime() - windowStarted;
+                        if (windowNanos >= TimeUnit.MILLISECONDS.toNanos(this.stallTimeout)) {
+                            // a trickle keeps the read timeout from firing, so check the progress over a whole window
+                            if (windowBytes * TimeUnit.SECONDS.toNanos(1) / windowNanos < MINIMUM_BYTES_PER_SECOND) {
+                                throw new IOException("Download stalled: Received only " + StringUtils.formatByteCount(windowBytes)
+                                        + " in " + TimeUnit.NANOSECONDS.toSeconds(windowNanos) + " s.");
+                            }
+
+                            windowStarted = System.nanoTime();
+                            windowBytes = 0;
+                        }
+                    }
+                } finally {
+                    // keep what was received, so an interrupted download can resume from there
+                    write(fileChannel, buffer, filled);
                 }
 
-                copied += count;
-                outputStream.write(buffer, 0, count);
-                this.progressListeners.stepProgress((int) copied, (int) contentLength);
+                messageDigest.update(buffer, 0, filled);
+                copied += filled;
             }
         }
 
+        this.reportThroughput(copied - offset, System.nanoTime() - started);
+
+        if (total >= 0 && copied != total) {
+            throw new IOException("Download incomplete: Received " + copied + " of " + total + " bytes.");
+        }
+
+        this.partialDownload.complete(HashUtils.toHex(messageDigest.digest()));
         return null;
     }
+
+    private long getOffset(ClientHttpResponse response) throws IOException {
+        if (response.getStatusCode() != HttpStatus.PARTIAL_CONTENT) {
+            return 0;
+        }
+
+        String contentRange = response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE);
+        Matcher matcher = CONTENT_RANGE_PATTERN.matcher(contentRange == null ? "" : contentRange);
+        if (!matcher.matches() || Long.parseLong(matcher.group(1)) != this.partialDownload.getResumeOffset()) {
+            this.partialDownload.discard();
+            throw new SourceException("Received unexpected content range '" + contentRange + "'.");
+        }
+
+        return this.partialDownload.getResumeOffset();
+    }
+
+    private void reportThroughput(long byteCount, long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (millis <= 0) {
+            return;
+        }
+
+        this.progressListeners.detail(MessageFormat.format("{0} in {1,number,0.0} s, {2}/s", StringUtils.formatByteCount(byteCount),
+                millis / 1000.0, StringUtils.formatByteCount(byteCount * 1000 / millis)));
+    }
 }
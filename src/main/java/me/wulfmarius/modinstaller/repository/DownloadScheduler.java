@@ -0,0 +1,184 @@
+package me.wulfmarius.modinstaller.repository;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import me.wulfmarius.modinstaller.*;
+import me.wulfmarius.modinstaller.ProgressListener.StepType;
+import me.wulfmarius.modinstaller.rest.RequestGroup;
+import me.wulfmarius.modinstaller.utils.UrlUtils;
+
+public class DownloadScheduler implements AutoCloseable {
+
+    private static final int DEFAULT_CONNECTIONS_PER_HOST = 4;
+
+    private final Repository repository;
+    private final ProgressListeners progressListeners;
+    private final int connectionsPerHost;
+
+    private final Map<String, ExecutorService> hostExecutors = new ConcurrentHashMap<>();
+    private final Map<ModDefinition, CompletableFuture<Void>> downloads = new HashMap<>();
+    private final Map<String, AssetProgress> assetProgress = new ConcurrentHashMap<>();
+    private final List<ModDefinition> pinned = new ArrayList<>();
+    private final RequestGroup requestGroup = new RequestGroup();
+
+    private volatile boolean reportingProgress;
+
+    public DownloadScheduler(Repository repository, ProgressListeners progressListeners) {
+        this(repository, progressListeners, Integer.getInteger("DOWNLOAD_CONNECTIONS_PER_HOST", DEFAULT_CONNECTIONS_PER_HOST));
+    }
+
+    public DownloadScheduler(Repository repository, ProgressListeners progressListeners, int connectionsPerHost) {
+        super();
+
+        this.repository = repository;
+        this.progressListeners = progressListeners;
+        this.connectionsPerHost = connectionsPerHost;
+    }
+
+    public void await(ModDefinition modDefinition) {
+        CompletableFuture<Void> download = this.downloads.get(modDefinition);
+        if (download == null) {
+            return;
+        }
+
+        if (!download.isDone()) {
+            this.progressListeners.stepStarted(modDefinition.getDisplayName(), StepType.DOWNLOAD);
+            this.reportingProgress = true;
+            this.reportProgress();
+        }
+
+        try {
+            download.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortException("Downloading assets was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new RepositoryException("Could not download assets of " + modDefinition.getDisplayName() + ".", e.getCause());
+        } finally {
+            this.reportingProgress = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.requestGroup.abort();
+            this.hostExecutors.values().forEach(ExecutorService::shutdownNow);
+        } finally {
+            this.pinned.forEach(this.repository.getAssetCache()::unpin);
+            this.pinned.clear();
+        }
+    }
+
+    public void schedule(Iterable<ModDefinition> modDefinitions) {
+        for (ModDefinition eachModDefinition : modDefinitions) {
+            // an eviction run must not delete what is about to be installed
+            this.repository.getAssetCache().pin(eachModDefinition);
+            this.pinned.add(eachModDefinition);
+
+            List<CompletableFuture<Void>> assetDownloads = new ArrayList<>();
+
+            for (Asset eachAsset : eachModDefinition.getAssets()) {
+                String key = AssetStore.getKey(eachModDefinition, eachAsset);
+                if (this.assetProgress.containsKey(key)) {
+                    continue;
+                }
+
+                AssetProgress progress = new AssetProgress(Repository.getFileName(eachAsset));
+                this.assetProgress.put(key, progress);
+
+                assetDownloads.add(CompletableFuture.runAsync(() -> this.requestGroup.run(
+                        () -> this.repository.downloadAsset(eachModDefinition, eachAsset, progress.getProgressListeners())),
+                        this.getExecutor(eachAsset.getUrl())));
+            }
+
+            this.downloads.put(eachModDefinition, CompletableFuture.allOf(assetDownloads.toArray(new CompletableFuture<?>[0])));
+        }
+    }
+
+    private ExecutorService getExecutor(String url) {
+        return this.hostExecutors.computeIfAbsent(UrlUtils.getHost(url), host -> {
+            AtomicInteger threadCount = new AtomicInteger();
+
+            return Executors.newFixedThreadPool(this.connectionsPerHost, runnable -> {
+                Thread thread = new Thread(runnable, "download-" + host + "-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        });
+    }
+
+    private synchronized void reportProgress() {
+        if (!this.reportingProgress) {
+            return;
+        }
+
+        long completed = 0;
+        long total = 0;
+        for (AssetProgress eachProgress : this.assetProgress.values()) {
+            completed += eachProgress.completed;
+            total += eachProgress.total;
+        }
+
+        this.progressListeners.stepProgress((int) Math.min(completed, Integer.MAX_VALUE), (int) Math.min(total, Integer.MAX_VALUE));
+    }
+
+    private class AssetProgress implements ProgressListener {
+
+        private final String name;
+        private final ProgressListeners progressListeners = new ProgressListeners();
+
+        // in KiB, like all DOWNLOAD progress
+        private volatile long completed;
+        private volatile long total;
+
+        public AssetProgress(String name) {
+            super();
+
+            this.name = name;
+            this.progressListeners.addListener(this);
+        }
+
+        @Override
+        public void finished(String message) {
+            // not used for single downloads
+        }
+
+        public ProgressListeners getProgressListeners() {
+            return this.progressListeners;
+        }
+
+        @Override
+        public void started(String started) {
+            // not used for single downloads
+        }
+
+        @Override
+        public void stepDetail(String detail) {
+            DownloadScheduler.this.progressListeners.detail(this.name + ": " + detail);
+        }
+
+        @Override
+        public void stepError(String error) {
+            DownloadScheduler.this.progressListeners.error(this.name + ": " + error);
+        }
+
+        @Override
+        public void stepProgress(int stepCompleted, int stepTotal) {
+            this.completed = stepCompleted;
+            this.total = Math.max(stepTotal, 0);
+            DownloadScheduler.this.reportProgress();
+        }
+
+        @Override
+        public void stepStarted(String step, StepType stepType) {
+            DownloadScheduler.this.progressListeners.detail("Downloading " + step);
+        }
+    }
+}
@@ -3,12 +3,24 @@ package me.wulfmarius.modinstaller.repository;
 import java.util.*;
 import java.util.stream.*;
 
+import com.fasterxml.jackson.annotation.*;
+
 import me.wulfmarius.modinstaller.ModDefinition;
 
 public class Installations implements Iterable<Installation> {
 
+    @JsonIgnore
     private List<Installation> installations = new ArrayList<>();
 
+    @JsonIgnore
+    private final Map<String, List<Installation>> installationsByName = new LinkedHashMap<>();
+
+    @JsonIgnore
+    private final Map<String, Integer> assetReferences = new HashMap<>();
+
+    @JsonIgnore
+    private boolean readOnly;
+
     public static Installations create(Installation... installation) {
         Installations result = new Installations();
 
@@ -30,12 +42,27 @@ public class Installations implements Iterable<Installation> {
         return result;
     }
 
+    public static Installations unmodifiable(Iterable<Installation> installations) {
+        Installations result = new Installations();
+
+        result.addInstallations(installations);
+        result.readOnly = true;
+
+        return result;
+    }
+
     private static Collector<Installation, ?, Installations> toInstallations() {
-        return Collectors.reducing(new Installations(), Installations::create, Installations::merge);
+        return Collector.of(Installations::new, Installations::addInstallation, (installations1, installations2) -> {
+            installations1.addInstallations(installations2);
+            return installations1;
+        });
     }
 
     public void addInstallation(Installation installation) {
+        this.checkModifiable();
+
         this.installations.add(installation);
+        this.index(installation);
     }
 
     public void addInstallations(Iterable<Installation> otherInstallations) {
@@ -45,25 +72,34 @@ public class Installations implements Iterable<Installation> {
     }
 
     public boolean contains(Installation installation) {
-        return this.installations.contains(installation);
+        return this.getNamedInstallations(installation.getName()).contains(installation);
     }
 
     public boolean contains(ModDefinition modDefinition) {
-        return this.installations.stream().anyMatch(installation -> installation.matches(modDefinition));
+        return this.getNamedInstallations(modDefinition.getName()).stream().anyMatch(installation -> installation.matches(modDefinition));
     }
 
+    @JsonProperty("installations")
     public List<Installation> getInstallations() {
-        return this.installations;
+        return Collections.unmodifiableList(this.installations);
     }
 
     public Installations getInstallations(String name) {
-        return this.installations.stream().filter(installation -> installation.getName().equals(name)).collect(toInstallations());
+        return this.getNamedInstallations(name).stream().collect(toInstallations());
     }
 
     public Installations getInstallationsWithAsset(String asset) {
+        if (!this.isAssetReferenced(asset)) {
+            return new Installations();
+        }
+
         return this.installations.stream().filter(installation -> installation.isAssetReferenced(asset)).collect(toInstallations());
     }
 
+    public Set<String> getNames() {
+        return new LinkedHashSet<>(this.installationsByName.keySet());
+    }
+
     public int getSize() {
         if (this.installations == null) {
             return 0;
@@ -72,28 +108,79 @@ public class Installations implements Iterable<Installation> {
         return this.installations.size();
     }
 
+    public boolean isAssetReferenced(String asset) {
+        return this.assetReferences.containsKey(asset);
+    }
+
     public boolean isEmpty() {
         return this.installations == null || this.installations.isEmpty();
     }
 
     @Override
     public Iterator<Installation> iterator() {
-        return this.installations.iterator();
+        return this.getInstallations().iterator();
     }
 
     public void remove(Installation installation) {
-        this.installations.remove(installation);
+        this.checkModifiable();
+
+        if (this.installations.remove(installation)) {
+            this.unindex(installation);
+        }
     }
 
     public void remove(ModDefinition modDefinition) {
-        this.installations.removeIf(installation -> installation.matches(modDefinition));
+        for (Installation eachInstallation : new ArrayList<>(this.getNamedInstallations(modDefinition.getName()))) {
+            if (eachInstallation.matches(modDefinition)) {
+                this.remove(eachInstallation);
+            }
+        }
     }
 
+    @JsonProperty("installations")
     public void setInstallations(List<Installation> installations) {
+        this.checkModifiable();
+
         this.installations = installations;
+
+        this.installationsByName.clear();
+        this.assetReferences.clear();
+        installations.forEach(this::index);
     }
 
     public Stream<Installation> stream() {
         return this.installations.stream();
     }
+
+    private void checkModifiable() {
+        if (this.readOnly) {
+            throw new UnsupportedOperationException("These installations are read-only.");
+        }
+    }
+
+    private List<Installation> getNamedInstallations(String name) {
+        return this.installationsByName.getOrDefault(name, Collections.emptyList());
+    }
+
+    private void index(Installation installation) {
+        this.installationsByName.computeIfAbsent(installation.getName(), name -> new ArrayList<>()).add(installation);
+
+        for (String eachAsset : installation.getAssets()) {
+            this.assetReferences.merge(eachAsset, 1, Integer::sum);
+        }
+    }
+
+    private void unindex(Installation installation) {
+        List<Installation> namedInstallations = this.installationsByName.get(installation.getName());
+        if (namedInstallations != null) {
+            namedInstallations.remove(installation);
+            if (namedInstallations.isEmpty()) {
+                this.installationsByName.remove(installation.getName());
+            }
+        }
+
+        for (String eachAsset : installation.getAssets()) {
+            this.assetReferences.computeIfPresent(eachAsset, (asset, count) -> count == 1 ? null : count - 1);
+        }
+    }
 }
@@ -0,0 +1,121 @@
+package me.wulfmarius.modinstaller.repository;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+
+import me.wulfmarius.modinstaller.utils.JsonUtils;
+
+public class PartialDownload {
+
+    private static final String PART_SUFFIX = ".part";
+    private static final String VALIDATOR_SUFFIX = ".part.json";
+
+    private final Path targetFile;
+    private final Path partFile;
+    private final Path validatorFile;
+
+    private String digest;
+
+    public PartialDownload(Path targetFile) {
+        super();
+
+        this.targetFile = targetFile;
+        this.partFile = targetFile.resolveSibling(targetFile.getFileName() + PART_SUFFIX);
+        this.validatorFile = targetFile.resolveSibling(targetFile.getFileName() + VALIDATOR_SUFFIX);
+    }
+
+    private static String getValidator(HttpHeaders headers) {
+        String etag = headers.getETag();
+        if (!StringUtils.isEmpty(etag) && !etag.startsWith("W/")) {
+            return etag;
+        }
+
+        return headers.getFirst(HttpHeaders.LAST_MODIFIED);
+    }
+
+    public void complete(String completedDigest) throws IOException {
+        try {
+            Files.move(this.partFile, this.targetFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(this.partFile, this.targetFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        Files.deleteIfExists(this.validatorFile);
+        this.digest = completedDigest;
+    }
+
+    public void discard() {
+        try {
+            Files.deleteIfExists(this.partFile);
+            Files.deleteIfExists(this.validatorFile);
+        } catch (IOException e) {
+            throw new RepositoryException("Could not discard partial download " + this.partFile + ".", e);
+        }
+    }
+
+    public String getDigest() {
+        return this.digest;
+    }
+
+    public Path getPartFile() {
+        return this.partFile;
+    }
+
+    public long getResumeOffset() {
+        if (this.getValidator() == null) {
+            return 0;
+        }
+
+        try {
+            return Files.size(this.partFile);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    public Path getTargetFile() {
+        return this.targetFile;
+    }
+
+    public String getValidator() {
+        if (Files.notExists(this.validatorFile) || Files.notExists(this.partFile)) {
+            return null;
+        }
+
+        try {
+            return JsonUtils.deserialize(this.validatorFile, Validator.class).getValue();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public void start(HttpHeaders headers) throws IOException {
+        Files.createDirectories(this.targetFile.getParent());
+
+        String value = getValidator(headers);
+        if (value == null) {
+            Files.deleteIfExists(this.validatorFile);
+            return;
+        }
+
+        Validator validator = new Validator();
+        validator.setValue(value);
+        JsonUtils.serialize(this.validatorFile, validator);
+    }
+
+    public static class Validator {
+
+        private String value;
+
+        public String getValue() {
+            return this.value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+    }
+}
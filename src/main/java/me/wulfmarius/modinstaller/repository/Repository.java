@@ -5,6 +5,8 @@ import static me.wulfmarius.modinstaller.repository.SourceFactory.PARAMETER_ETAG
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.springframework.http.*;
@@ -12,20 +14,37 @@ import org.springframework.util.StringUtils;
 
 import me.wulfmarius.modinstaller.*;
 import me.wulfmarius.modinstaller.ProgressListener.StepType;
+import me.wulfmarius.modinstaller.repository.snapshot.*;
 import me.wulfmarius.modinstaller.repository.source.*;
-import me.wulfmarius.modinstaller.rest.RestClient;
-import me.wulfmarius.modinstaller.utils.JsonUtils;
+import me.wulfmarius.modinstaller.rest.*;
+import me.wulfmarius.modinstaller.utils.*;
 
 public class Repository {
 
     private static final String SNAPSHOT_URL = "https://raw.githubusercontent.com/WulfMarius/Mod-Installer/master/src/main/resources/default-sources.json";
+    private static final String DELTA_SNAPSHOT_URL = System.getProperty("DELTA_SNAPSHOT_URL");
+
+    private static final int DEFAULT_REFRESH_THREADS = 8;
 
     private final Path basePath;
+    private final AssetStore assetStore;
+    private final AssetCache assetCache;
+    private final AssetPrefetcher assetPrefetcher;
+    private final SourcesStore sourcesStore;
+    private final TextStore textStore;
 
     private final Sources sources = new Sources();
+    private final Catalog catalog = new Catalog();
+    private final Set<Source> changedSources = new LinkedHashSet<>();
+    private final Set<Source> uncatalogedSources = new LinkedHashSet<>();
     private final List<SourceFactory> sourceFactories = new ArrayList<>();
     private final ProgressListeners progressListeners = new ProgressListeners();
     private final SourcesChangedListeners sourcesChangedListeners = new SourcesChangedListeners();
+    private final Map<String, CompletableFuture<Void>> assetDownloads = new ConcurrentHashMap<>();
+
+    private int refreshThreads = Integer.getInteger("REFRESH_THREADS", DEFAULT_REFRESH_THREADS);
+    private SnapshotProvider snapshotProvider = new HttpSnapshotProvider(RestClient.getInstance(), SNAPSHOT_URL, DELTA_SNAPSHOT_URL);
+    private SnapshotState snapshotState;
 
     public Repository(Path basePath) {
         super();
@@ -36,6 +55,13 @@ public class Repository {
         } catch (IOException e) {
             throw new RepositoryException("Could not create base path " + basePath + ".", e);
         }
+
+        this.assetStore = new AssetStore(basePath);
+        this.assetCache = new AssetCache(this.assetStore);
+        this.assetPrefetcher = new AssetPrefetcher(this);
+        this.sourcesStore = new SourcesStore(basePath);
+        this.textStore = new TextStore(basePath.resolve("texts.dat"));
+        this.snapshotState = this.readSnapshotState();
     }
 
     public static String getFileName(Asset asset) {
@@ -63,6 +89,17 @@ public class Repository {
         return url;
     }
 
+    private static RefreshedSource takeRefreshedSource(CompletionService<RefreshedSource> completionService) {
+        try {
+            return completionService.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortException("Refreshing sources was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new RepositoryException("Could not refresh source: " + e.getCause(), e.getCause());
+        }
+    }
+
     public void addProgressListener(ProgressListener listener) {
         this.progressListeners.addListener(listener);
     }
@@ -71,52 +108,111 @@ public class Repository {
         this.sourcesChangedListeners.addListener(listener);
     }
 
-    public void downloadAssets(ModDefinition modDefinition) {
-        Asset[] assets = modDefinition.getAssets();
+    public void downloadAsset(ModDefinition modDefinition, Asset asset, ProgressListeners listeners) {
+        this.downloadAsset(modDefinition, asset, listeners, null);
+    }
+
+    public void downloadAsset(ModDefinition modDefinition, Asset asset, ProgressListeners listeners,
+            BandwidthLimiter bandwidthLimiter) {
+        String key = AssetStore.getKey(modDefinition, asset);
+
+        while (true) {
+            CompletableFuture<Void> download = new CompletableFuture<>();
+            CompletableFuture<Void> existing = this.assetDownloads.putIfAbsent(key, download);
+            if (existing == null) {
+                try {
+                    this.performDownloadAsset(modDefinition, asset, listeners, bandwidthLimiter);
+                    download.complete(null);
+                    return;
+                } catch (RuntimeException | Error e) {
+                    download.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    this.assetDownloads.remove(key, download);
+                }
+            }
 
-        for (Asset eachAsset : assets) {
-            Path assetPath = this.getAssetPath(modDefinition, eachAsset);
-            if (Files.notExists(assetPath)) {
-                RestClient.getInstance().downloadAsset(eachAsset.getUrl(), assetPath, this.progressListeners);
+            // the prefetcher and the installer share one download of the same asset
+            listeners.detail("Waiting for the running download of " + asset.getUrl());
+            try {
+                existing.get();
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AbortException("Waiting for the download of " + asset.getUrl() + " was interrupted.", e);
+            } catch (ExecutionException e) {
+                // the other download failed, so try again and report this attempt's own problem
             }
         }
     }
 
-    public Path getAssetPath(ModDefinition modDefinition, Asset asset) {
-        return this.basePath.resolve(modDefinition.getName()).resolve(modDefinition.getVersion()).resolve(getFileName(asset));
-    }
+    public DownloadScheduler downloadAssets(Iterable<ModDefinition> modDefinitions) {
+        // a prefetch of the same assets must not hold the install back
+        this.assetPrefetcher.cancel();
 
-    public List<ModDefinition> getLatestVersions() {
-        return this.getSources().stream().flatMap(Source::getLatestVersions).collect(Collectors.toList());
+        DownloadScheduler result = new DownloadScheduler(this, this.progressListeners);
+        result.schedule(modDefinitions);
+        return result;
     }
 
-    public ModDefinitions getMatching(ModDependency modDependency) {
-        ModDefinitions result = new ModDefinitions();
+    public void exportSources(Path path) {
+        try {
+            // an export must carry the texts themselves, not references into the local text store
+            Sources exported = JsonUtils.deserialize(JsonUtils.buffer(this.sources), Sources.class);
+            for (Source eachSource : exported) {
+                eachSource.getModDefinitionStream().forEach(modDefinition -> {
+                    modDefinition.resolveTexts(this.textStore::find);
+                    modDefinition.inlineTexts();
+                });
+            }
 
-        for (Source eachSource : this.sources) {
-            result.addModDefinitions(eachSource.getMatchingDefinitions(modDependency));
+            JsonUtils.serialize(path, exported);
+        } catch (IOException e) {
+            throw new RepositoryException("Could not export sources to " + path + ".", e);
         }
+    }
 
-        return result;
+    public AssetCache getAssetCache() {
+        return this.assetCache;
     }
 
-    public Optional<ModDefinition> getModDefinition(String name, String version) {
-        for (Source eachSource : this.sources) {
-            Optional<ModDefinition> modDefinition = eachSource.getModDefinition(name, version);
-            if (modDefinition.isPresent()) {
-                return modDefinition;
-            }
+    public Path getAssetPath(ModDefinition modDefinition, Asset asset) {
+        Optional<Path> result = this.assetStore.findVerified(modDefinition, asset);
+        if (!result.isPresent()) {
+            // the stored copy is missing or damaged, so fetch it again instead of installing it
+            this.downloadAsset(modDefinition, asset, this.progressListeners);
+            result = this.assetStore.find(modDefinition, asset);
         }
 
-        return Optional.empty();
+        return result.orElseThrow(() -> new RepositoryException("Asset " + asset.getUrl() + " has not been downloaded."));
+    }
+
+    public AssetPrefetcher getAssetPrefetcher() {
+        return this.assetPrefetcher;
+    }
+
+    public DependencyGraph getDependencyGraph() {
+        return this.catalog.getDependencyGraph();
+    }
+
+    public List<ModDefinition> getLatestVersions() {
+        return this.catalog.getLatestVersions();
+    }
+
+    public ModDefinitions getMatching(ModDependency modDependency) {
+        return this.catalog.getMatching(modDependency);
+    }
+
+    public Optional<ModDefinition> getModDefinition(String name, String version) {
+        return this.catalog.getModDefinition(name, version);
     }
 
     public List<ModDefinition> getModDefinitions(String name) {
-        return this.sources.stream()
-                .flatMap(Source::getModDefinitionStream)
-                .filter(modDefinition -> modDefinition.getName().equals(name))
-                .sorted(ModDefinition::latest)
-                .collect(Collectors.toList());
+        return this.catalog.getModDefinitions(name);
+    }
+
+    public int getRefreshThreads() {
+        return this.refreshThreads;
     }
 
     public Sources getSources() {
@@ -124,43 +220,90 @@ public class Repository {
     }
 
     public void initialize() {
-        this.sourceFactories.add(new GithubSourceFactory(RestClient.getInstance()));
+        this.sourceFactories.add(
+                new GithubSourceFactory(RestClient.getInstance(), new GithubReleaseCache(this.basePath.resolve("github-releases"))));
         this.sourceFactories.add(new DirectSourceFactory(RestClient.getInstance()));
         this.sourceFactories.add(new FileSourceFactory());
 
         Sources savedSources = this.readSources();
         if (!savedSources.isEmpty()) {
+            for (Source eachSource : savedSources) {
+                this.resolveTexts(eachSource);
+            }
+            this.catalog.update(savedSources.getSources());
             this.sources.addSources(savedSources);
             this.sources.setLastUpdate(savedSources.getLastUpdate());
             this.sources.setSnapshotETag(savedSources.getSnapshotETag());
             this.sourcesChangedListeners.changed();
         }
+
+        if (!this.changedSources.isEmpty()) {
+            // save migrated sources right away, so their texts are not parsed again on the next start
+            try {
+                this.sourcesStore.write(this.sources, this.changedSources);
+                this.changedSources.clear();
+            } catch (IOException e) {
+                this.progressListeners.error("Could not save sources: " + e);
+            }
+        }
+
+        // texts kept from earlier runs that no catalog entry refers to anymore
+        this.textStore.compact();
     }
 
     public void invalidateSources() {
         for (Source eachSource : this.sources) {
             eachSource.removeParameter(SourceFactory.PARAMETER_ETAG);
+            this.changedSources.add(eachSource);
+        }
+    }
+
+    public void prefetchAssets(List<ModDefinition> modDefinitions) {
+        if (modDefinitions.isEmpty() || RestClient.getInstance().isOffline()) {
+            return;
         }
+
+        this.assetPrefetcher.prefetch(modDefinitions);
     }
 
     public void refreshSnapshot() {
-        ResponseEntity<String> response = RestClient.getInstance().fetch(SNAPSHOT_URL, this.sources.getSnapshotETag());
+        if (RestClient.getInstance().isOffline()) {
+            this.progressListeners.detail("Working offline, keeping the cached sources.");
+            return;
+        }
+
+        if (!this.snapshotProvider.isDeltaSupported()) {
+            // without a published manifest, asking for one would only cost a round trip
+            this.refreshFullSnapshot();
+            return;
+        }
 
+        ResponseEntity<SnapshotManifest> response = this.snapshotProvider.getManifest(this.snapshotState.getEtag());
         if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
             return;
         }
 
         if (!response.getStatusCode().is2xxSuccessful()) {
-            this.progressListeners.error("Could not find snapshot: " + SNAPSHOT_URL + " " + response.getStatusCodeValue() + "/"
-                    + response.getStatusCode().getReasonPhrase());
+            // no delta has been published, so there is nothing to compare against
+            this.refreshFullSnapshot();
             return;
         }
 
-        Sources snapshot = RestClient.getInstance().deserialize(response, Sources.class, Sources::new);
-        this.applySnapshot(snapshot);
+        SnapshotManifest manifest = response.getBody();
+        List<String> changedDefinitions = manifest.getChangedDefinitions(this.snapshotState.getHashes());
 
-        this.sources.setSnapshotETag(response.getHeaders().getETag());
-        this.writeSources();
+        boolean complete;
+        if (this.snapshotState.isEmpty() || changedDefinitions.size() * 2 > manifest.size()) {
+            complete = this.refreshFullSnapshot();
+        } else {
+            complete = this.refreshSnapshotDelta(manifest, changedDefinitions);
+        }
+
+        if (complete) {
+            this.snapshotState.setHashes(new HashMap<>(manifest.getHashes()));
+            this.snapshotState.setEtag(response.getHeaders().getETag());
+        }
+        this.writeSnapshotState();
     }
 
     public void refreshSources() {
@@ -168,13 +311,18 @@ public class Repository {
 
         try {
             this.progressListeners.started("Refreshing Sources");
+            if (RestClient.getInstance().isOffline()) {
+                this.progressListeners.detail("Working offline, keeping the cached sources.");
+                return;
+            }
 
             List<ModDefinition> previousLatestVersions = this.getLatestVersions();
 
             this.performRefreshSources();
+            this.updateCatalog();
 
-            List<ModDefinition> currentLatestVersions = this.getLatestVersions();
-            currentLatestVersions.removeAll(previousLatestVersions);
+            List<ModDefinition> currentLatestVersions = new ArrayList<>(this.getLatestVersions());
+            currentLatestVersions.removeAll(new HashSet<>(previousLatestVersions));
             if (!currentLatestVersions.isEmpty()) {
                 changes = currentLatestVersions.stream().map(ModDefinition::getName).collect(
                         Collectors.joining("\n\t", "\n\nThe following mods were added/updated:\n\t", "\n"));
@@ -212,8 +360,30 @@ public class Repository {
         this.sourcesChangedListeners.removeListener(listener);
     }
 
+    public void setInstallations(Installations installations) {
+        Set<String> installed = installations.stream()
+                .map(installation -> installation.getName() + "/" + installation.getVersion())
+                .collect(Collectors.toSet());
+
+        this.assetCache.setInstalled(entry -> installed.contains(entry.getName() + "/" + entry.getVersion()));
+        this.assetCache.scheduleEviction();
+    }
+
+    public void setRefreshThreads(int refreshThreads) {
+        if (refreshThreads < 1) {
+            throw new IllegalArgumentException("Refresh threads must be at least 1, but was " + refreshThreads + ".");
+        }
+
+        this.refreshThreads = refreshThreads;
+    }
+
+    public void setSnapshotProvider(SnapshotProvider snapshotProvider) {
+        this.snapshotProvider = snapshotProvider;
+    }
+
     private void addSource(Source source) {
         this.sources.addSource(source);
+        this.sourceChanged(source);
     }
 
     private void applySnapshot(Sources snapshot) {
@@ -232,41 +402,122 @@ public class Repository {
                     .findFirst()
                     .ifPresent(eachSource -> {
                         this.progressListeners.detail("Updating " + eachSource.getDefinition());
-                        eachSource.update(eachSnapshotSource);
+                        this.replaceSource(eachSource, Source.updated(eachSource, eachSnapshotSource));
                     });
         }
     }
 
+    private ExecutorService createRefreshExecutor(int sourceCount) {
+        AtomicInteger threadCount = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(Math.min(this.refreshThreads, sourceCount), runnable -> {
+            Thread thread = new Thread(runnable, "source-refresh-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     private Source createSource(String sourceDefinition, Map<String, String> parameters) {
         for (SourceFactory eachSourceFactory : this.sourceFactories) {
             if (!eachSourceFactory.isSupportedSource(sourceDefinition)) {
                 continue;
             }
 
-            this.progressListeners.detail("Loading definition");
             return eachSourceFactory.create(sourceDefinition, parameters);
         }
 
         throw new SourceException("Unsupported source '" + sourceDefinition + "'.");
     }
 
-    private Path getSourcesPath() {
-        return this.basePath.resolve("sources.json");
+    private void externalizeTexts(Source source) {
+        source.getModDefinitionStream().forEach(modDefinition -> modDefinition.externalizeTexts(this.textStore::add));
+    }
+
+    private RefreshedSource fetchSource(Source source) {
+        try {
+            return new RefreshedSource(source, this.createSource(source.getDefinition(), source.getParameters()), null);
+        } catch (RuntimeException e) {
+            return new RefreshedSource(source, null, e);
+        }
+    }
+
+    private Path getSnapshotStatePath() {
+        return this.basePath.resolve("snapshot-state.json");
+    }
+
+    private void mergeRefreshedSource(RefreshedSource refreshedSource) {
+        Source source = refreshedSource.getSource();
+        this.progressListeners.stepStarted(source.getDefinition(), StepType.REFRESH);
+
+        RuntimeException error = refreshedSource.getError();
+        if (error instanceof AbortException) {
+            throw error;
+        }
+
+        if (error != null) {
+            this.progressListeners.error(error.getMessage());
+            return;
+        }
+
+        try {
+            this.refreshSource(source, refreshedSource.getRefreshedSource());
+        } catch (AbortException e) {
+            throw e;
+        } catch (Exception e) {
+            this.progressListeners.error(e.getMessage());
+        }
+    }
+
+    private void performDownloadAsset(ModDefinition modDefinition, Asset asset, ProgressListeners listeners,
+            BandwidthLimiter bandwidthLimiter) {
+        if (this.assetStore.verify(modDefinition, asset)) {
+            return;
+        }
+
+        if (this.assetStore.link(modDefinition, asset) && this.assetStore.verify(modDefinition, asset)) {
+            listeners.detail("Reusing stored copy of " + asset.getUrl());
+            return;
+        }
+
+        try {
+            Path downloadPath = this.assetStore.getDownloadPath(modDefinition, asset);
+            String digest;
+            if (Files.exists(downloadPath)) {
+                digest = HashUtils.sha256(downloadPath);
+            } else if (RestClient.getInstance().isOffline()) {
+                throw new RepositoryException(
+                        "Asset " + asset.getUrl() + " has not been downloaded and cannot be downloaded while offline.");
+            } else {
+                digest = RestClient.getInstance().downloadAsset(asset.getUrl(), downloadPath, listeners, bandwidthLimiter);
+            }
+
+            this.assetStore.add(modDefinition, asset, downloadPath, digest);
+            this.assetCache.scheduleEviction();
+        } catch (IOException e) {
+            throw new RepositoryException("Could not download asset " + asset.getUrl() + ".", e);
+        }
     }
 
     private void performRefreshSources() {
-        int refreshed = 0;
-        int total = this.sources.size();
+        List<Source> sourcesToRefresh = new ArrayList<>(this.sources.getSources());
+        int total = sourcesToRefresh.size();
+        if (total == 0) {
+            return;
+        }
 
-        for (int i = 0; i < total; i++) {
-            try {
-                this.refreshSource(this.sources.getSources().get(i));
-            } catch (AbortException e) {
-                throw e;
-            } catch (Exception e) {
-                this.progressListeners.error(e.getMessage());
+        ExecutorService executorService = this.createRefreshExecutor(total);
+        try {
+            CompletionService<RefreshedSource> completionService = new ExecutorCompletionService<>(executorService);
+            for (Source eachSource : sourcesToRefresh) {
+                completionService.submit(() -> this.fetchSource(eachSource));
+            }
+
+            for (int refreshed = 1; refreshed <= total; refreshed++) {
+                this.mergeRefreshedSource(takeRefreshedSource(completionService));
+                this.progressListeners.stepProgress(refreshed, total);
             }
-            this.progressListeners.stepProgress(++refreshed, total);
+        } finally {
+            executorService.shutdownNow();
         }
     }
 
@@ -279,6 +530,7 @@ public class Repository {
         }
 
         try {
+            this.progressListeners.detail("Loading definition");
             Source source = this.createSource(definition, Collections.emptyMap());
             this.registerDefinitions(source);
             this.addSource(source);
@@ -289,14 +541,23 @@ public class Repository {
         }
     }
 
-    private Sources readSources() {
+    private SnapshotState readSnapshotState() {
         try {
-            Path sourcesPath = this.getSourcesPath();
-            if (Files.exists(sourcesPath)) {
-                return JsonUtils.deserialize(sourcesPath, Sources.class);
+            Path path = this.getSnapshotStatePath();
+            if (Files.exists(path)) {
+                return JsonUtils.deserialize(path, SnapshotState.class);
             }
         } catch (IOException e) {
-            throw new RepositoryException("Failed to read sources.", e);
+            // ignore
+        }
+
+        return new SnapshotState();
+    }
+
+    private Sources readSources() {
+        Optional<Sources> savedSources = this.sourcesStore.read();
+        if (savedSources.isPresent()) {
+            return savedSources.get();
         }
 
         try (InputStream inputStream = this.getClass().getResourceAsStream("/default-sources.json")) {
@@ -308,10 +569,53 @@ public class Repository {
         return new Sources();
     }
 
-    private boolean refreshSource(Source source) {
-        this.progressListeners.stepStarted(source.getDefinition(), StepType.REFRESH);
+    private boolean refreshFullSnapshot() {
+        ResponseEntity<Sources> response = this.snapshotProvider.getSnapshot(this.sources.getSnapshotETag());
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            return true;
+        }
 
-        Source refreshedSource = this.createSource(source.getDefinition(), source.getParameters());
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            this.progressListeners.error("Could not find snapshot: " + response.getStatusCodeValue() + "/"
+                    + response.getStatusCode().getReasonPhrase());
+            return false;
+        }
+
+        this.applySnapshot(response.getBody());
+
+        this.sources.setSnapshotETag(response.getHeaders().getETag());
+        this.writeSources();
+        return true;
+    }
+
+    private boolean refreshSnapshotDelta(SnapshotManifest manifest, List<String> changedDefinitions) {
+        if (changedDefinitions.isEmpty()) {
+            return true;
+        }
+
+        Sources delta = new Sources();
+        boolean result = true;
+
+        for (String eachDefinition : changedDefinitions) {
+            String hash = manifest.getHash(eachDefinition);
+            ResponseEntity<Source> response = this.snapshotProvider.getSource(hash);
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                this.progressListeners.error("Could not find snapshot of " + eachDefinition + ": " + response.getStatusCodeValue() + "/"
+                        + response.getStatusCode().getReasonPhrase());
+                result = false;
+                continue;
+            }
+
+            delta.addSource(response.getBody());
+            this.snapshotState.putHash(eachDefinition, hash);
+        }
+
+        this.applySnapshot(delta);
+        this.writeSources();
+        return result;
+    }
+
+    private boolean refreshSource(Source source, Source refreshedSource) {
         if (refreshedSource.hasParameterValue(SourceFactory.PARAMETER_UNMODIFIED, "true")) {
             this.progressListeners.detail("Unmodified");
 
@@ -322,7 +626,7 @@ public class Repository {
             return false;
         }
 
-        source.update(refreshedSource);
+        this.replaceSource(source, Source.updated(source, refreshedSource));
         this.registerDefinitions(refreshedSource);
 
         this.progressListeners.detail("Updated");
@@ -344,13 +648,90 @@ public class Repository {
         }
     }
 
+    private void replaceSource(Source source, Source replacement) {
+        // readers keep seeing the old source until the complete replacement is swapped in
+        this.changedSources.remove(source);
+        this.uncatalogedSources.remove(source);
+        this.sourceChanged(replacement);
+        this.sources.replaceSource(source, replacement);
+    }
+
+    private void resolveTexts(Source source) {
+        boolean resolved = source.getModDefinitionStream()
+                .map(modDefinition -> modDefinition.resolveTexts(this.textStore::find))
+                .reduce(true, Boolean::logicalAnd);
+        if (!resolved) {
+            // the texts are gone, so make the next refresh fetch the source again
+            source.removeParameter(SourceFactory.PARAMETER_ETAG);
+            this.changedSources.add(source);
+        }
+
+        // sources saved before the texts moved to the text store still carry them inline
+        boolean externalized = source.getModDefinitionStream()
+                .map(modDefinition -> modDefinition.externalizeTexts(this.textStore::add))
+                .reduce(false, Boolean::logicalOr);
+        if (externalized) {
+            this.changedSources.add(source);
+        }
+    }
+
+    private void sourceChanged(Source source) {
+        this.externalizeTexts(source);
+        this.uncatalogedSources.add(source);
+        this.changedSources.add(source);
+    }
+
+    private void updateCatalog() {
+        // all sources changed by one refresh go into a single catalog version
+        this.catalog.update(new ArrayList<>(this.uncatalogedSources));
+        this.uncatalogedSources.clear();
+    }
+
+    private void writeSnapshotState() {
+        try {
+            JsonUtils.serializeAtomically(this.getSnapshotStatePath(), this.snapshotState);
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
     private void writeSources() {
+        this.updateCatalog();
+
         try {
             this.sources.setLastUpdate(new Date());
-            JsonUtils.serialize(this.getSourcesPath(), this.sources);
+            this.sourcesStore.write(this.sources, this.changedSources);
+            this.changedSources.clear();
             this.sourcesChangedListeners.changed();
         } catch (IOException e) {
             this.progressListeners.error("Could not save sources: " + e);
         }
     }
+
+    private static class RefreshedSource {
+
+        private final Source source;
+        private final Source refreshedSource;
+        private final RuntimeException error;
+
+        public RefreshedSource(Source source, Source refreshedSource, RuntimeException error) {
+            super();
+
+            this.source = source;
+            this.refreshedSource = refreshedSource;
+            this.error = error;
+        }
+
+        public RuntimeException getError() {
+            return this.error;
+        }
+
+        public Source getRefreshedSource() {
+            return this.refreshedSource;
+        }
+
+        public Source getSource() {
+            return this.source;
+        }
+    }
 }
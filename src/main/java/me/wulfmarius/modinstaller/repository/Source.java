@@ -35,6 +35,20 @@ public class Source {
         return result;
     }
 
+    public static Source updated(Source source, Source refreshedSource) {
+        Source result = new Source();
+
+        result.setDefinition(source.definition);
+        result.setUrl(source.url);
+        result.setDefinitions(source.definitions);
+        result.setName(refreshedSource.name);
+        result.setDescription(refreshedSource.description);
+        result.setModDefinitions(refreshedSource.modDefinitions);
+        result.parameters.putAll(refreshedSource.parameters);
+
+        return result;
+    }
+
     public String getDefinition() {
         return this.definition;
     }
@@ -129,15 +143,6 @@ public class Source {
         this.url = url;
     }
 
-    public void update(Source refreshedSource) {
-        this.name = refreshedSource.name;
-        this.description = refreshedSource.description;
-        this.modDefinitions = refreshedSource.modDefinitions;
-
-        this.parameters.clear();
-        this.parameters.putAll(refreshedSource.parameters);
-    }
-
     private void createModDefinitions(ModDefinition[] releases) {
         if (releases == null) {
             return;
@@ -1,11 +1,13 @@
 package me.wulfmarius.modinstaller.repository;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Stream;
 
 public class Sources implements Iterable<Source> {
 
-    private List<Source> sources = new ArrayList<>();
+    // readers iterate while a refresh adds or replaces sources
+    private List<Source> sources = new CopyOnWriteArrayList<>();
 
     private Date lastUpdate;
     private String snapshotETag;
@@ -49,6 +51,28 @@ public class Sources implements Iterable<Source> {
         this.sources.remove(source);
     }
 
+    public void replaceSource(Source source) {
+        for (int i = 0; i < this.sources.size(); i++) {
+            if (source.getDefinition().equalsIgnoreCase(this.sources.get(i).getDefinition())) {
+                this.sources.set(i, source);
+                return;
+            }
+        }
+
+        this.addSource(source);
+    }
+
+    public void replaceSource(Source source, Source replacement) {
+        for (int i = 0; i < this.sources.size(); i++) {
+            if (this.sources.get(i) == source) {
+                this.sources.set(i, replacement);
+                return;
+            }
+        }
+
+        this.addSource(replacement);
+    }
+
     public void setLastUpdate(Date lastUpdate) {
         this.lastUpdate = lastUpdate;
     }
@@ -58,7 +82,7 @@ public class Sources implements Iterable<Source> {
     }
 
     public void setSources(List<Source> sources) {
-        this.sources = sources;
+        this.sources = new CopyOnWriteArrayList<>(sources);
     }
 
     public int size() {
@@ -0,0 +1,44 @@
+package me.wulfmarius.modinstaller.repository;
+
+import java.util.Date;
+
+public class SourcesJournalEntry {
+
+    private Source source;
+    private Date lastUpdate;
+    private String snapshotETag;
+
+    public static SourcesJournalEntry create(Sources sources, Source source) {
+        SourcesJournalEntry result = new SourcesJournalEntry();
+
+        result.setSource(source);
+        result.setLastUpdate(sources.getLastUpdate());
+        result.setSnapshotETag(sources.getSnapshotETag());
+
+        return result;
+    }
+
+    public Date getLastUpdate() {
+        return this.lastUpdate;
+    }
+
+    public String getSnapshotETag() {
+        return this.snapshotETag;
+    }
+
+    public Source getSource() {
+        return this.source;
+    }
+
+    public void setLastUpdate(Date lastUpdate) {
+        this.lastUpdate = lastUpdate;
+    }
+
+    public void setSnapshotETag(String snapshotETag) {
+        this.snapshotETag = snapshotETag;
+    }
+
+    public void setSource(Source source) {
+        this.source = source;
+    }
+}
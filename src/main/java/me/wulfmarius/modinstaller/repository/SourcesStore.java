@@ -0,0 +1,222 @@
+package me.wulfmarius.modinstaller.repository;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import me.wulfmarius.modinstaller.utils.JsonUtils;
+
+public class SourcesStore {
+
+    private static final int DEFAULT_JOURNAL_LIMIT = 64;
+
+    private static final int BINARY_MAGIC = 0x4D495342;
+    private static final int BINARY_FORMAT_VERSION = 1;
+
+    private final Path basePath;
+
+    private int journalLimit = Integer.getInteger("SOURCES_JOURNAL_LIMIT", DEFAULT_JOURNAL_LIMIT);
+    private int journalEntries;
+
+    private boolean binaryCache = Boolean.parseBoolean(System.getProperty("SOURCES_BINARY_CACHE", "true"));
+
+    public SourcesStore(Path basePath) {
+        super();
+
+        this.basePath = basePath;
+    }
+
+    private static void apply(Sources sources, SourcesJournalEntry entry) {
+        if (entry.getSource() != null) {
+            sources.replaceSource(entry.getSource());
+        }
+
+        sources.setLastUpdate(entry.getLastUpdate());
+        sources.setSnapshotETag(entry.getSnapshotETag());
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public synchronized void compact(Sources sources) throws IOException {
+        JsonUtils.serializeAtomically(this.getSourcesPath(), sources);
+        if (this.binaryCache) {
+            this.writeBinary(sources);
+        }
+
+        // replaying entries that already made it into the compacted file is harmless, so a crash here loses nothing
+        Files.deleteIfExists(this.getJournalPath());
+        this.journalEntries = 0;
+    }
+
+    public int getJournalLimit() {
+        return this.journalLimit;
+    }
+
+    public boolean isBinaryCache() {
+        return this.binaryCache;
+    }
+
+    public synchronized Optional<Sources> read() {
+        Path sourcesPath = this.getSourcesPath();
+        Path journalPath = this.getJournalPath();
+        if (!Files.exists(sourcesPath) && !Files.exists(journalPath)) {
+            return Optional.empty();
+        }
+
+        try {
+            Sources result = null;
+            if (this.binaryCache) {
+                result = this.readBinary().orElse(null);
+            }
+
+            if (result == null && Files.exists(sourcesPath)) {
+                result = JsonUtils.deserialize(sourcesPath, Sources.class);
+                if (this.binaryCache) {
+                    this.writeBinaryQuietly(result);
+                }
+            }
+
+            if (result == null) {
+                result = new Sources();
+            }
+
+            this.journalEntries = this.replayJournal(result);
+            return Optional.of(result);
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to read sources.", e);
+        }
+    }
+
+    public void setBinaryCache(boolean binaryCache) {
+        this.binaryCache = binaryCache;
+    }
+
+    public void setJournalLimit(int journalLimit) {
+        this.journalLimit = journalLimit;
+    }
+
+    public synchronized void write(Sources sources, Collection<Source> changedSources) throws IOException {
+        int entryCount = Math.max(1, changedSources.size());
+        if (!Files.exists(this.getSourcesPath()) || this.journalEntries > this.journalLimit - entryCount) {
+            this.compact(sources);
+            return;
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        if (changedSources.isEmpty()) {
+            this.writeEntry(outputStream, SourcesJournalEntry.create(sources, null));
+        }
+        for (Source eachSource : changedSources) {
+            this.writeEntry(outputStream, SourcesJournalEntry.create(sources, eachSource));
+        }
+
+        Files.write(this.getJournalPath(), outputStream.toByteArray(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.journalEntries += entryCount;
+    }
+
+    private Path getBinaryPath() {
+        return this.basePath.resolve("sources.bin");
+    }
+
+    private Path getJournalPath() {
+        return this.basePath.resolve("sources-journal.json");
+    }
+
+    private Path getSourcesPath() {
+        return this.basePath.resolve("sources.json");
+    }
+
+    private Optional<Sources> readBinary() {
+        Path binaryPath = this.getBinaryPath();
+        if (!Files.exists(binaryPath)) {
+            return Optional.empty();
+        }
+
+        try {
+            // sources.json is newer when it was edited or restored by hand
+            Path sourcesPath = this.getSourcesPath();
+            if (Files.exists(sourcesPath)
+                    && Files.getLastModifiedTime(sourcesPath).compareTo(Files.getLastModifiedTime(binaryPath)) > 0) {
+                return Optional.empty();
+            }
+
+            try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(binaryPath)))) {
+                if (inputStream.readInt() != BINARY_MAGIC || inputStream.readInt() != BINARY_FORMAT_VERSION
+                        || !Source.VERSION.equals(inputStream.readUTF())) {
+                    return Optional.empty();
+                }
+
+                return Optional.of(JsonUtils.deserializeBinary(inputStream, Sources.class));
+            }
+        } catch (IOException e) {
+            // ignore
+        }
+
+        return Optional.empty();
+    }
+
+    private int replayJournal(Sources sources) throws IOException {
+        Path journalPath = this.getJournalPath();
+        if (!Files.exists(journalPath)) {
+            return 0;
+        }
+
+        int result = 0;
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                SourcesJournalEntry entry;
+                try {
+                    entry = JsonUtils.deserialize(line, SourcesJournalEntry.class);
+                } catch (IOException e) {
+                    // the last append was interrupted; everything before it is intact, but anything appended
+                    // after it would be unreachable, so make the next write compact the journal
+                    return Integer.MAX_VALUE;
+                }
+
+                apply(sources, entry);
+                result++;
+            }
+        }
+
+        return result;
+    }
+
+    private void writeBinary(Sources sources) throws IOException {
+        Path binaryPath = this.getBinaryPath();
+        Path tempPath = binaryPath.resolveSibling(binaryPath.getFileName() + ".tmp");
+
+        try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+            outputStream.writeInt(BINARY_MAGIC);
+            outputStream.writeInt(BINARY_FORMAT_VERSION);
+            outputStream.writeUTF(Source.VERSION);
+            JsonUtils.serializeBinary(outputStream, sources);
+        }
+
+        move(tempPath, binaryPath);
+    }
+
+    private void writeBinaryQuietly(Sources sources) {
+        try {
+            this.writeBinary(sources);
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    private void writeEntry(OutputStream outputStream, SourcesJournalEntry entry) throws IOException {
+        outputStream.write(JsonUtils.serializeLine(entry));
+        outputStream.write('\n');
+    }
+}
@@ -0,0 +1,316 @@
+package me.wulfmarius.modinstaller.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+import me.wulfmarius.modinstaller.TextReference;
+import me.wulfmarius.modinstaller.utils.HashUtils;
+
+public class TextStore {
+
+    private static final int DEFAULT_CACHE_SIZE = 64;
+    private static final int MAGIC = 0x54585431;
+    private static final int FILE_HEADER_SIZE = 4;
+    private static final int DIGEST_SIZE = 32;
+    private static final int RECORD_HEADER_SIZE = DIGEST_SIZE + 4;
+
+    private final Path path;
+    private final Map<String, Reference> referencesByDigest = new HashMap<>();
+    private final Map<Reference, String> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReadWriteLock channelLock = new ReentrantReadWriteLock();
+
+    private int cacheSize = Integer.getInteger("TEXT_CACHE_SIZE", DEFAULT_CACHE_SIZE);
+
+    private volatile FileChannel fileChannel;
+    private long size;
+    private boolean failed;
+
+    public TextStore(Path path) {
+        super();
+
+        this.path = path;
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1) {
+                return false;
+            }
+        }
+
+        buffer.flip();
+        return true;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    public synchronized Reference add(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        byte[] digest = HashUtils.createSha256().digest(bytes);
+        String key = HashUtils.toHex(digest);
+
+        try {
+            FileChannel channel = this.getFileChannel();
+            if (channel == null) {
+                return null;
+            }
+
+            Reference existing = this.referencesByDigest.get(key);
+            if (existing != null) {
+                existing.used = true;
+                return existing;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + bytes.length);
+            buffer.put(digest).putInt(bytes.length).put(bytes);
+            buffer.flip();
+            writeFully(channel, buffer, this.size);
+
+            Reference result = new Reference(this, key, this.size + RECORD_HEADER_SIZE, bytes.length);
+            result.used = true;
+            this.referencesByDigest.put(key, result);
+            this.size += buffer.capacity();
+            return result;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public synchronized void compact() {
+        if (this.fileChannel == null) {
+            return;
+        }
+
+        long liveSize = this.referencesByDigest.values()
+                .stream()
+                .filter(reference -> reference.used)
+                .mapToLong(reference -> RECORD_HEADER_SIZE + reference.length)
+                .sum();
+        if (this.size - FILE_HEADER_SIZE - liveSize <= liveSize) {
+            return;
+        }
+
+        Path tempPath = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+        this.channelLock.writeLock().lock();
+        try {
+            Map<Reference, Long> positions = new HashMap<>();
+            long position = this.writeHeader(tempPath);
+
+            try (FileChannel target = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+                for (Reference eachReference : this.referencesByDigest.values()) {
+                    if (!eachReference.used) {
+                        continue;
+                    }
+
+                    ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + eachReference.length);
+                    if (!readFully(this.fileChannel, buffer, eachReference.position - RECORD_HEADER_SIZE)) {
+                        throw new IOException("Unexpected end of " + this.path + ".");
+                    }
+
+                    writeFully(target, buffer, position);
+                    positions.put(eachReference, position + RECORD_HEADER_SIZE);
+                    position += buffer.capacity();
+                }
+            }
+
+            this.fileChannel.close();
+            try {
+                move(tempPath, this.path);
+            } finally {
+                this.fileChannel = FileChannel.open(this.path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+
+            positions.forEach((reference, referencePosition) -> reference.position = referencePosition);
+            this.referencesByDigest.values().removeIf(reference -> !reference.used);
+            this.size = position;
+        } catch (IOException e) {
+            // keep the texts where they are
+        } finally {
+            this.channelLock.writeLock().unlock();
+        }
+    }
+
+    public synchronized Reference find(String digest) {
+        try {
+            if (this.getFileChannel() == null) {
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+
+        // the digest is trusted as it is, the texts are only read when they are shown
+        Reference result = this.referencesByDigest.get(digest);
+        if (result != null) {
+            result.used = true;
+        }
+
+        return result;
+    }
+
+    public int getCacheSize() {
+        return this.cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        synchronized (this.cache) {
+            this.cacheSize = cacheSize;
+            this.trimCache();
+        }
+    }
+
+    private String get(Reference reference) {
+        synchronized (this.cache) {
+            String result = this.cache.get(reference);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        String result = this.read(reference);
+        if (result != null) {
+            synchronized (this.cache) {
+                this.cache.put(reference, result);
+                this.trimCache();
+            }
+        }
+
+        return result;
+    }
+
+    private FileChannel getFileChannel() throws IOException {
+        if (this.fileChannel == null && !this.failed) {
+            try {
+                this.fileChannel = this.open();
+            } catch (IOException e) {
+                this.failed = true;
+                throw e;
+            }
+        }
+
+        return this.fileChannel;
+    }
+
+    private FileChannel open() throws IOException {
+        if (Files.notExists(this.path)) {
+            this.writeHeader(this.path);
+        }
+
+        FileChannel result = FileChannel.open(this.path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        if (!readFully(result, header, 0) || header.getInt() != MAGIC) {
+            // an unknown or older layout cannot be reused, so start over
+            result.close();
+            this.writeHeader(this.path);
+            result = FileChannel.open(this.path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        // only the record headers are read, the texts stay on disk until they are needed
+        long position = FILE_HEADER_SIZE;
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        while (readFully(result, (ByteBuffer) recordHeader.clear(), position)) {
+            byte[] digest = new byte[DIGEST_SIZE];
+            recordHeader.get(digest);
+            int length = recordHeader.getInt();
+            if (length < 0 || position + RECORD_HEADER_SIZE + length > result.size()) {
+                break;
+            }
+
+            String key = HashUtils.toHex(digest);
+            this.referencesByDigest.put(key, new Reference(this, key, position + RECORD_HEADER_SIZE, length));
+            position += RECORD_HEADER_SIZE + length;
+        }
+
+        // drop a record that was only partially written
+        result.truncate(position);
+        this.size = position;
+        return result;
+    }
+
+    private String read(Reference reference) {
+        this.channelLock.readLock().lock();
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(reference.length);
+            if (!readFully(this.fileChannel, buffer, reference.position)) {
+                return null;
+            }
+
+            return new String(buffer.array(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        } finally {
+            this.channelLock.readLock().unlock();
+        }
+    }
+
+    private void trimCache() {
+        Iterator<Reference> iterator = this.cache.keySet().iterator();
+        while (this.cache.size() > this.cacheSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private long writeHeader(Path headerPath) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC);
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(headerPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            writeFully(channel, header, 0);
+        }
+
+        return FILE_HEADER_SIZE;
+    }
+
+    public static class Reference implements TextReference {
+
+        private final TextStore textStore;
+        private final String digest;
+        private final int length;
+
+        private long position;
+        private boolean used;
+
+        public Reference(TextStore textStore, String digest, long position, int length) {
+            super();
+
+            this.textStore = textStore;
+            this.digest = digest;
+            this.position = position;
+            this.length = length;
+        }
+
+        @Override
+        public String get() {
+            return this.textStore.get(this);
+        }
+
+        @Override
+        public String getDigest() {
+            return this.digest;
+        }
+
+        @Override
+        public String getUncached() {
+            return this.textStore.read(this);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package me.wulfmarius.modinstaller.repository.snapshot;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+import org.springframework.http.*;
+
+import me.wulfmarius.modinstaller.repository.*;
+import me.wulfmarius.modinstaller.utils.*;
+
+public class FileSnapshotProvider implements SnapshotProvider {
+
+    private final Path directory;
+
+    public FileSnapshotProvider(Path directory) {
+        super();
+
+        this.directory = directory;
+    }
+
+    private static <T> ResponseEntity<T> read(Path path, String etag, Class<T> type) {
+        if (!Files.exists(path)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            String currentETag = "\"" + HashUtils.sha256(path) + "\"";
+            if (currentETag.equals(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag).build();
+            }
+
+            return ResponseEntity.ok().eTag(currentETag).body(JsonUtils.deserialize(path, type));
+        } catch (IOException e) {
+            throw new RepositoryException("Could not read snapshot file " + path + ".", e);
+        }
+    }
+
+    @Override
+    public ResponseEntity<SnapshotManifest> getManifest(String etag) {
+        return read(this.directory.resolve(SnapshotPublisher.MANIFEST_FILE), etag, SnapshotManifest.class);
+    }
+
+    @Override
+    public ResponseEntity<Sources> getSnapshot(String etag) {
+        return read(this.directory.resolve(SnapshotPublisher.SNAPSHOT_FILE), etag, Sources.class);
+    }
+
+    @Override
+    public ResponseEntity<Source> getSource(String hash) {
+        return read(this.directory.resolve(SnapshotPublisher.SOURCES_DIRECTORY).resolve(SnapshotPublisher.getSourceFileName(hash)),
+                null, Source.class);
+    }
+}
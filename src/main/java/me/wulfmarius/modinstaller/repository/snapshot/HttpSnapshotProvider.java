@@ -0,0 +1,44 @@
+package me.wulfmarius.modinstaller.repository.snapshot;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+
+import me.wulfmarius.modinstaller.repository.*;
+import me.wulfmarius.modinstaller.rest.RestClient;
+
+public class HttpSnapshotProvider implements SnapshotProvider {
+
+    private final RestClient restClient;
+    private final String snapshotUrl;
+    private final String deltaUrl;
+
+    public HttpSnapshotProvider(RestClient restClient, String snapshotUrl, String deltaUrl) {
+        super();
+
+        this.restClient = restClient;
+        this.snapshotUrl = snapshotUrl;
+        // the manifest and the sources are resolved against the delta URL, so it must end with a separator
+        this.deltaUrl = StringUtils.isEmpty(deltaUrl) || deltaUrl.endsWith("/") ? deltaUrl : deltaUrl + "/";
+    }
+
+    @Override
+    public ResponseEntity<SnapshotManifest> getManifest(String etag) {
+        return this.restClient.fetch(this.deltaUrl + SnapshotPublisher.MANIFEST_FILE, etag, SnapshotManifest.class, null);
+    }
+
+    @Override
+    public ResponseEntity<Sources> getSnapshot(String etag) {
+        return this.restClient.fetch(this.snapshotUrl, etag, Sources.class, null);
+    }
+
+    @Override
+    public ResponseEntity<Source> getSource(String hash) {
+        return this.restClient.fetch(this.deltaUrl + SnapshotPublisher.SOURCES_DIRECTORY + "/" + SnapshotPublisher.getSourceFileName(hash),
+                null, Source.class, null);
+    }
+
+    @Override
+    public boolean isDeltaSupported() {
+        return !StringUtils.isEmpty(this.deltaUrl);
+    }
+}
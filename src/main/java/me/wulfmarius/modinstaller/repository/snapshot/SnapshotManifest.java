@@ -0,0 +1,37 @@
+package me.wulfmarius.modinstaller.repository.snapshot;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class SnapshotManifest {
+
+    private Map<String, String> hashes = new LinkedHashMap<>();
+
+    public List<String> getChangedDefinitions(Map<String, String> knownHashes) {
+        return this.hashes.entrySet()
+                .stream()
+                .filter(entry -> !entry.getValue().equals(knownHashes.get(entry.getKey())))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    public String getHash(String definition) {
+        return this.hashes.get(definition);
+    }
+
+    public Map<String, String> getHashes() {
+        return this.hashes;
+    }
+
+    public void putHash(String definition, String hash) {
+        this.hashes.put(definition, hash);
+    }
+
+    public void setHashes(Map<String, String> hashes) {
+        this.hashes = hashes;
+    }
+
+    public int size() {
+        return this.hashes.size();
+    }
+}
@@ -0,0 +1,18 @@
+package me.wulfmarius.modinstaller.repository.snapshot;
+
+import org.springframework.http.ResponseEntity;
+
+import me.wulfmarius.modinstaller.repository.*;
+
+public interface SnapshotProvider {
+
+    ResponseEntity<SnapshotManifest> getManifest(String etag);
+
+    ResponseEntity<Sources> getSnapshot(String etag);
+
+    ResponseEntity<Source> getSource(String hash);
+
+    default boolean isDeltaSupported() {
+        return true;
+    }
+}
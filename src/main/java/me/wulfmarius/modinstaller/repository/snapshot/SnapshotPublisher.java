@@ -0,0 +1,41 @@
+package me.wulfmarius.modinstaller.repository.snapshot;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+import me.wulfmarius.modinstaller.repository.*;
+import me.wulfmarius.modinstaller.utils.*;
+
+public class SnapshotPublisher {
+
+    public static final String MANIFEST_FILE = "manifest.json";
+    public static final String SNAPSHOT_FILE = "snapshot.json";
+    public static final String SOURCES_DIRECTORY = "sources";
+
+    public static String getSourceFileName(String hash) {
+        return hash + ".json";
+    }
+
+    public static SnapshotManifest publish(Sources sources, Path directory) throws IOException {
+        Path sourcesDirectory = directory.resolve(SOURCES_DIRECTORY);
+        Files.createDirectories(sourcesDirectory);
+
+        SnapshotManifest result = new SnapshotManifest();
+        for (Source eachSource : sources) {
+            byte[] bytes = JsonUtils.serializeLine(eachSource);
+            String hash = HashUtils.sha256(bytes);
+
+            // entries are content addressed, so an existing one never needs to be rewritten
+            Path sourcePath = sourcesDirectory.resolve(getSourceFileName(hash));
+            if (!Files.exists(sourcePath)) {
+                Files.write(sourcePath, bytes);
+            }
+
+            result.putHash(eachSource.getDefinition(), hash);
+        }
+
+        JsonUtils.serializeAtomically(directory.resolve(SNAPSHOT_FILE), sources);
+        JsonUtils.serializeAtomically(directory.resolve(MANIFEST_FILE), result);
+        return result;
+    }
+}
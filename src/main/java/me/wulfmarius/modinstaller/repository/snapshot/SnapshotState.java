@@ -0,0 +1,33 @@
+package me.wulfmarius.modinstaller.repository.snapshot;
+
+import java.util.*;
+
+public class SnapshotState {
+
+    private String etag;
+    private Map<String, String> hashes = new HashMap<>();
+
+    public String getEtag() {
+        return this.etag;
+    }
+
+    public Map<String, String> getHashes() {
+        return this.hashes;
+    }
+
+    public boolean isEmpty() {
+        return this.hashes.isEmpty();
+    }
+
+    public void putHash(String definition, String hash) {
+        this.hashes.put(definition, hash);
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public void setHashes(Map<String, String> hashes) {
+        this.hashes = hashes;
+    }
+}
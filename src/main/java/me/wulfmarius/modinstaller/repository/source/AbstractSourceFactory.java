@@ -33,10 +33,10 @@ public abstract class AbstractSourceFactory implements SourceFactory {
     protected SourceDescription getSourceDescription(String sourceDefinition, Map<String, String> parameters) {
         String url = this.getDefinitionsUrl(sourceDefinition);
 
-        ResponseEntity<String> response = this.restClient.fetch(url, parameters.get(PARAMETER_ETAG));
+        ResponseEntity<SourceDescription> response = this.restClient.fetch(url, parameters.get(PARAMETER_ETAG), SourceDescription.class,
+                this::createUnmodifiedSourceDescription);
         if (!response.getStatusCode().isError()) {
-            SourceDescription result = this.restClient.deserialize(response, SourceDescription.class,
-                    this::createUnmodifiedSourceDescription);
+            SourceDescription result = response.getBody();
 
             result.setParameter(PARAMETER_ETAG, response.getHeaders().getETag());
             result.setParameter(PARAMETER_VERSION, Source.VERSION);
@@ -44,7 +44,8 @@ public abstract class AbstractSourceFactory implements SourceFactory {
             return result;
         }
 
-        throw new SourceException("Could not read source description: " + response.getStatusCodeValue() + ", " + response.getBody());
+        throw new SourceException("Could not read source description: " + response.getStatusCodeValue() + ", "
+                + response.getStatusCode().getReasonPhrase());
     }
 
     protected void postProcessSourceDescription(String definition, SourceDescription sourceDescription) {
@@ -0,0 +1,32 @@
+package me.wulfmarius.modinstaller.repository.source;
+
+public class CachedGithubReleases {
+
+    private String etag;
+    private GithubRelease[] releases;
+
+    public static CachedGithubReleases create(String etag, GithubRelease[] releases) {
+        CachedGithubReleases result = new CachedGithubReleases();
+
+        result.setEtag(etag);
+        result.setReleases(releases);
+
+        return result;
+    }
+
+    public String getEtag() {
+        return this.etag;
+    }
+
+    public GithubRelease[] getReleases() {
+        return this.releases;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public void setReleases(GithubRelease[] releases) {
+        this.releases = releases;
+    }
+}
@@ -0,0 +1,48 @@
+package me.wulfmarius.modinstaller.repository.source;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Optional;
+
+import me.wulfmarius.modinstaller.utils.JsonUtils;
+
+public class GithubReleaseCache {
+
+    private final Path basePath;
+
+    public GithubReleaseCache(Path basePath) {
+        super();
+
+        this.basePath = basePath;
+    }
+
+    public synchronized Optional<CachedGithubReleases> read(String user, String repository) {
+        Path path = this.getPath(user, repository);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(JsonUtils.deserialize(path, CachedGithubReleases.class))
+                    .filter(cached -> cached.getEtag() != null && cached.getReleases() != null);
+        } catch (IOException e) {
+            // a broken cache entry only costs a full request
+            return Optional.empty();
+        }
+    }
+
+    public synchronized void write(String user, String repository, CachedGithubReleases releases) {
+        Path path = this.getPath(user, repository);
+
+        try {
+            Files.createDirectories(path.getParent());
+            JsonUtils.serialize(path, releases);
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    private Path getPath(String user, String repository) {
+        return this.basePath.resolve(user.toLowerCase()).resolve(repository.toLowerCase() + ".json");
+    }
+}
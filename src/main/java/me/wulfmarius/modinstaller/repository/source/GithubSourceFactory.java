@@ -4,12 +4,12 @@ import java.text.MessageFormat;
 import java.util.*;
 import java.util.regex.*;
 
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.*;
 import org.springframework.util.StringUtils;
 
 import me.wulfmarius.modinstaller.*;
-import me.wulfmarius.modinstaller.repository.SourceDescription;
-import me.wulfmarius.modinstaller.rest.RestClient;
+import me.wulfmarius.modinstaller.repository.*;
+import me.wulfmarius.modinstaller.rest.*;
 
 public class GithubSourceFactory extends AbstractSourceFactory {
 
@@ -18,8 +18,12 @@ public class GithubSourceFactory extends AbstractSourceFactory {
     private static final Pattern SOURCE_PATTERN = Pattern.compile("\\Qhttps://github.com/\\E([A-Z0-9-]+)/([A-Z0-9-_]+)/?",
             Pattern.CASE_INSENSITIVE);
 
-    public GithubSourceFactory(RestClient restClient) {
+    private final GithubReleaseCache releaseCache;
+
+    public GithubSourceFactory(RestClient restClient, GithubReleaseCache releaseCache) {
         super(restClient);
+
+        this.releaseCache = releaseCache;
     }
 
     @Override
@@ -40,9 +44,30 @@ public class GithubSourceFactory extends AbstractSourceFactory {
     }
 
     protected GithubRelease[] getGithubReleases(String definition) {
-        String url = definition.replace("//github.com/", "//api.github.com/repos/") + "/releases";
-        ResponseEntity<String> response = this.restClient.fetch(url, null);
-        return this.restClient.deserialize(response, GithubRelease[].class, () -> new GithubRelease[0]);
+        Matcher matcher = SOURCE_PATTERN.matcher(definition);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Unsupported source definition " + definition);
+        }
+
+        String user = matcher.group(1);
+        String repository = matcher.group(2);
+        Optional<CachedGithubReleases> cached = this.releaseCache.read(user, repository);
+
+        String url = MessageFormat.format("https://api.github.com/repos/{0}/{1}/releases", user, repository);
+        ResponseEntity<GithubRelease[]> response = this.restClient.fetch(url, cached.map(CachedGithubReleases::getEtag).orElse(null),
+                GithubRelease[].class, () -> cached.map(CachedGithubReleases::getReleases).orElse(new GithubRelease[0]),
+                RequestPriority.LOW);
+        if (response.getStatusCode().isError()) {
+            throw new SourceException("Could not read releases: " + response.getStatusCodeValue() + ", "
+                    + response.getStatusCode().getReasonPhrase());
+        }
+
+        String etag = response.getHeaders().getETag();
+        if (response.getStatusCode() != HttpStatus.NOT_MODIFIED && !StringUtils.isEmpty(etag)) {
+            this.releaseCache.write(user, repository, CachedGithubReleases.create(etag, response.getBody()));
+        }
+
+        return response.getBody();
     }
 
     @Override
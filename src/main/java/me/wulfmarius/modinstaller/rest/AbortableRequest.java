@@ -0,0 +1,58 @@
+package me.wulfmarius.modinstaller.rest;
+
+import java.io.*;
+import java.net.URI;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.*;
+
+public class AbortableRequest implements ClientHttpRequest {
+
+    private final ClientHttpRequest request;
+    private final Runnable abort;
+
+    public AbortableRequest(ClientHttpRequest request, Runnable abort) {
+        super();
+
+        this.request = request;
+        this.abort = abort;
+    }
+
+    @Override
+    public ClientHttpResponse execute() throws IOException {
+        RequestGroup requestGroup = RequestGroup.getCurrent();
+        if (requestGroup == null) {
+            return new AbortableResponse(this.request.execute(), this.abort, () -> {
+                // not part of a group
+            });
+        }
+
+        requestGroup.register(this.abort);
+        try {
+            return new AbortableResponse(this.request.execute(), this.abort, () -> requestGroup.unregister(this.abort));
+        } catch (IOException | RuntimeException e) {
+            requestGroup.unregister(this.abort);
+            throw e;
+        }
+    }
+
+    @Override
+    public OutputStream getBody() throws IOException {
+        return this.request.getBody();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return this.request.getHeaders();
+    }
+
+    @Override
+    public String getMethodValue() {
+        return this.request.getMethodValue();
+    }
+
+    @Override
+    public URI getURI() {
+        return this.request.getURI();
+    }
+}
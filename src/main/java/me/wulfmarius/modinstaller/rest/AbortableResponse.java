@@ -0,0 +1,154 @@
+package me.wulfmarius.modinstaller.rest;
+
+import java.io.*;
+
+import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpResponse;
+
+public class AbortableResponse implements ClientHttpResponse {
+
+    private static final long DRAIN_LIMIT = 64 * 1024;
+
+    private final ClientHttpResponse response;
+    private final Runnable abort;
+    private final Runnable finished;
+
+    private InputStream body;
+    private long count;
+    private boolean complete;
+    private boolean failed;
+    private boolean closed;
+
+    public AbortableResponse(ClientHttpResponse response, Runnable abort, Runnable finished) {
+        super();
+
+        this.response = response;
+        this.abort = abort;
+        this.finished = finished;
+    }
+
+    @Override
+    public void close() {
+        this.finish();
+        this.response.close();
+    }
+
+    @Override
+    public synchronized InputStream getBody() throws IOException {
+        if (this.body == null) {
+            this.body = new BodyInputStream(this.response.getBody());
+        }
+
+        return this.body;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return this.response.getHeaders();
+    }
+
+    @Override
+    public int getRawStatusCode() throws IOException {
+        return this.response.getRawStatusCode();
+    }
+
+    @Override
+    public HttpStatus getStatusCode() throws IOException {
+        return this.response.getStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+        return this.response.getStatusText();
+    }
+
+    private boolean drain() {
+        if (this.failed || Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+
+        long contentLength = this.getHeaders().getContentLength();
+        if (contentLength >= 0 && contentLength - this.count > DRAIN_LIMIT) {
+            return false;
+        }
+
+        try {
+            InputStream inputStream = this.response.getBody();
+            byte[] buffer = new byte[8192];
+            long drained = 0;
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                drained += read;
+                if (drained > DRAIN_LIMIT) {
+                    return false;
+                }
+            }
+
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private synchronized void finish() {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+
+        try {
+            // closing would read the rest of the body just to keep the connection, which is only worth it for small leftovers
+            if (!this.complete && !this.drain()) {
+                this.abort.run();
+            }
+        } finally {
+            this.finished.run();
+        }
+    }
+
+    private class BodyInputStream extends FilterInputStream {
+
+        public BodyInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public void close() throws IOException {
+            AbortableResponse.this.finish();
+            super.close();
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                int result = super.read();
+                this.update(result == -1 ? -1 : 1);
+                return result;
+            } catch (IOException e) {
+                AbortableResponse.this.failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            try {
+                int result = super.read(buffer, offset, length);
+                this.update(result);
+                return result;
+            } catch (IOException e) {
+                AbortableResponse.this.failed = true;
+                throw e;
+            }
+        }
+
+        private void update(int read) {
+            if (read == -1) {
+                AbortableResponse.this.complete = true;
+            } else {
+                AbortableResponse.this.count += read;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package me.wulfmarius.modinstaller.rest;
+
+import java.net.URI;
+import java.util.*;
+
+public class AdaptiveTimeouts implements ReadTimeoutPolicy {
+
+    private static final int MAXIMUM_TIMEOUT = 120000;
+    private static final int SAFETY_FACTOR = 4;
+    private static final long BLOCK_SIZE = 64 * 1024;
+    private static final long MINIMUM_SAMPLE_SIZE = 16 * 1024;
+    private static final double SMOOTHING = 0.25;
+
+    private final Map<String, HostTimeout> hostTimeouts = new HashMap<>();
+
+    private volatile int initialTimeout;
+
+    public AdaptiveTimeouts(int initialTimeout) {
+        super();
+
+        this.initialTimeout = initialTimeout;
+    }
+
+    private static double smooth(double current, double sample) {
+        if (current <= 0) {
+            return sample;
+        }
+
+        return current + SMOOTHING * (sample - current);
+    }
+
+    public int getInitialTimeout() {
+        return this.initialTimeout;
+    }
+
+    @Override
+    public int getReadTimeout(URI uri) {
+        return this.getReadTimeout(String.valueOf(uri.getHost()));
+    }
+
+    public synchronized int getReadTimeout(String host) {
+        HostTimeout hostTimeout = this.hostTimeouts.get(host);
+        if (hostTimeout == null) {
+            return this.initialTimeout;
+        }
+
+        return hostTimeout.timeout;
+    }
+
+    public synchronized void recordTimeout(String host) {
+        HostTimeout hostTimeout = this.hostTimeouts.computeIfAbsent(host, key -> new HostTimeout(this.initialTimeout));
+
+        hostTimeout.timeout = this.clamp(hostTimeout.timeout * 2L);
+    }
+
+    public synchronized void recordTransfer(String host, long latency, long bytes, long duration) {
+        HostTimeout hostTimeout = this.hostTimeouts.computeIfAbsent(host, key -> new HostTimeout(this.initialTimeout));
+
+        hostTimeout.latency = smooth(hostTimeout.latency, latency);
+        if (bytes >= MINIMUM_SAMPLE_SIZE) {
+            hostTimeout.throughput = smooth(hostTimeout.throughput, (double) bytes / Math.max(duration, 1));
+        }
+
+        // a read has to cover the wait for the response and for the next block at the observed rate
+        long blockTime = hostTimeout.throughput > 0 ? (long) (BLOCK_SIZE / hostTimeout.throughput) : 0;
+        hostTimeout.timeout = this.clamp(SAFETY_FACTOR * Math.max((long) hostTimeout.latency, blockTime));
+    }
+
+    public void setInitialTimeout(int initialTimeout) {
+        this.initialTimeout = initialTimeout;
+    }
+
+    private int clamp(long timeout) {
+        // the configured timeout stays the floor, so only slow hosts get more time
+        return (int) Math.max(this.initialTimeout, Math.min(MAXIMUM_TIMEOUT, timeout));
+    }
+
+    private static class HostTimeout {
+
+        private double latency;
+        private double throughput;
+        private int timeout;
+
+        public HostTimeout(int timeout) {
+            super();
+
+            this.timeout = timeout;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package me.wulfmarius.modinstaller.rest;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+public class BandwidthLimiter {
+
+    private volatile long bytesPerSecond;
+
+    private long available;
+    private long lastRefill = System.nanoTime();
+
+    public BandwidthLimiter(long bytesPerSecond) {
+        super();
+
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    public synchronized void acquire(int byteCount) throws InterruptedIOException {
+        long rate = this.bytesPerSecond;
+        if (rate <= 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        // allow bursts of up to one second worth of bytes
+        this.available = Math.min(rate, this.available + (now - this.lastRefill) * rate / TimeUnit.SECONDS.toNanos(1));
+        this.lastRefill = now;
+        this.available -= byteCount;
+
+        if (this.available < 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(-this.available * TimeUnit.SECONDS.toNanos(1) / rate);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Throttled transfer was interrupted.");
+            }
+        }
+    }
+
+    public long getBytesPerSecond() {
+        return this.bytesPerSecond;
+    }
+
+    public void setBytesPerSecond(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+}
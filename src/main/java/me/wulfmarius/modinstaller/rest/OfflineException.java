@@ -0,0 +1,12 @@
+package me.wulfmarius.modinstaller.rest;
+
+import me.wulfmarius.modinstaller.AbortException;
+
+public class OfflineException extends AbortException {
+
+    private static final long serialVersionUID = 1L;
+
+    public OfflineException(String url) {
+        super("Working offline, skipped request to " + url + ".");
+    }
+}
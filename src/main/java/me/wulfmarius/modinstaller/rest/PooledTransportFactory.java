@@ -0,0 +1,82 @@
+package me.wulfmarius.modinstaller.rest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.*;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.*;
+
+public class PooledTransportFactory implements TransportFactory {
+
+    @Override
+    public ClientHttpRequestFactory create(TransportConfiguration configuration) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(configuration.getKeepAlive(),
+                TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(configuration.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(configuration.getMaxConnectionsPerHost());
+        connectionManager.setValidateAfterInactivity(2000);
+
+        CloseableHttpClient httpClient = HttpClientBuilder.create()
+                .useSystemProperties()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    if (keepAlive < 0) {
+                        return configuration.getKeepAlive();
+                    }
+
+                    return Math.min(keepAlive, configuration.getKeepAlive());
+                })
+                .evictIdleConnections(configuration.getKeepAlive(), TimeUnit.MILLISECONDS)
+                .build();
+
+        ThreadLocal<HttpUriRequest> createdRequest = new ThreadLocal<>();
+        HttpComponentsClientHttpRequestFactory result = new HttpComponentsClientHttpRequestFactory(httpClient) {
+
+            @Override
+            public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+                try {
+                    ClientHttpRequest request = super.createRequest(uri, httpMethod);
+                    HttpUriRequest httpRequest = createdRequest.get();
+                    // aborting discards the connection instead of reading the rest of an unwanted body to return it to the pool
+                    return new AbortableRequest(request, httpRequest::abort);
+                } finally {
+                    createdRequest.remove();
+                }
+            }
+
+            @Override
+            protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+                ReadTimeoutPolicy readTimeoutPolicy = configuration.getReadTimeoutPolicy();
+                if (readTimeoutPolicy == null) {
+                    return null;
+                }
+
+                HttpClientContext result = HttpClientContext.create();
+                result.setRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(configuration.getConnectTimeout())
+                        .setConnectionRequestTimeout(configuration.getConnectTimeout())
+                        .setSocketTimeout(readTimeoutPolicy.getReadTimeout(uri))
+                        .build());
+                return result;
+            }
+
+            @Override
+            protected void postProcessHttpRequest(HttpUriRequest request) {
+                createdRequest.set(request);
+            }
+        };
+        result.setConnectTimeout(configuration.getConnectTimeout());
+        result.setConnectionRequestTimeout(configuration.getConnectTimeout());
+        result.setReadTimeout(configuration.getReadTimeout());
+
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package me.wulfmarius.modinstaller.rest;
+
+import java.time.Instant;
+
+public class RateLimit {
+
+    private int limit;
+    private int remaining;
+    private long reset;
+
+    public static RateLimit create(int limit, int remaining, long reset) {
+        RateLimit result = new RateLimit();
+
+        result.setLimit(limit);
+        result.setRemaining(remaining);
+        result.setReset(reset);
+
+        return result;
+    }
+
+    public int getLimit() {
+        return this.limit;
+    }
+
+    public int getRemaining() {
+        return this.remaining;
+    }
+
+    public long getReset() {
+        return this.reset;
+    }
+
+    public Instant getResetInstant() {
+        return Instant.ofEpochSecond(this.reset);
+    }
+
+    public boolean isExpired() {
+        return this.getResetInstant().isBefore(Instant.now());
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public void setRemaining(int remaining) {
+        this.remaining = remaining;
+    }
+
+    public void setReset(long reset) {
+        this.reset = reset;
+    }
+}
@@ -0,0 +1,158 @@
+package me.wulfmarius.modinstaller.rest;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.*;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+
+import me.wulfmarius.modinstaller.AbortException;
+import me.wulfmarius.modinstaller.utils.*;
+
+public class RateLimitScheduler {
+
+    private static final int DEFAULT_RESERVE_PERCENT = 30;
+
+    private final int reservePercent;
+
+    private RateLimits rateLimits = new RateLimits();
+    private Path statePath;
+
+    public RateLimitScheduler() {
+        this(Integer.getInteger("RATE_LIMIT_RESERVE_PERCENT", DEFAULT_RESERVE_PERCENT));
+    }
+
+    public RateLimitScheduler(int reservePercent) {
+        super();
+
+        this.reservePercent = reservePercent;
+    }
+
+    private static Integer parseInteger(String value) {
+        Long result = parseLong(value);
+        if (result == null || result < Integer.MIN_VALUE || result > Integer.MAX_VALUE) {
+            return null;
+        }
+
+        return result.intValue();
+    }
+
+    private static Long parseLong(String value) {
+        if (StringUtils.isEmpty(value)) {
+            return null;
+        }
+
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public synchronized void acquire(String url, RequestPriority priority) {
+        String host = UrlUtils.getHost(url);
+
+        while (true) {
+            RateLimit rateLimit = this.rateLimits.get(host);
+            if (rateLimit == null) {
+                return;
+            }
+
+            if (rateLimit.isExpired()) {
+                this.rateLimits.remove(host);
+                this.writeState();
+                return;
+            }
+
+            if (priority == RequestPriority.HIGH && rateLimit.getRemaining() <= 0) {
+                throw new RateLimitException(rateLimit.getResetInstant());
+            }
+
+            if (priority == RequestPriority.HIGH || rateLimit.getRemaining() > this.getReserve(rateLimit)) {
+                // reserve the request until its response reports the actual count
+                rateLimit.setRemaining(rateLimit.getRemaining() - 1);
+                this.writeState();
+                return;
+            }
+
+            // the rest of the window belongs to requests the user is waiting for, so queue until the limit resets
+            this.awaitReset(rateLimit);
+        }
+    }
+
+    public synchronized void configure(Path path) {
+        this.statePath = path;
+
+        try {
+            if (Files.exists(path)) {
+                this.rateLimits = JsonUtils.deserialize(path, RateLimits.class);
+                this.rateLimits.removeExpired();
+            }
+        } catch (IOException e) {
+            this.rateLimits = new RateLimits();
+        }
+    }
+
+    public synchronized RateLimit getRateLimit(String host) {
+        return this.rateLimits.get(host);
+    }
+
+    public synchronized void update(String url, HttpHeaders headers) {
+        if (headers == null) {
+            return;
+        }
+
+        Integer remaining = parseInteger(headers.getFirst("X-RateLimit-Remaining"));
+        Long reset = parseLong(headers.getFirst("X-RateLimit-Reset"));
+        if (remaining == null || reset == null) {
+            return;
+        }
+
+        Integer limit = parseInteger(headers.getFirst("X-RateLimit-Limit"));
+        String host = UrlUtils.getHost(url);
+        RateLimit rateLimit = this.rateLimits.get(host);
+        if (rateLimit != null && rateLimit.getReset() == reset) {
+            // responses of concurrent requests may arrive out of order
+            if (remaining >= rateLimit.getRemaining()) {
+                return;
+            }
+
+            rateLimit.setRemaining(remaining);
+        } else {
+            this.rateLimits.put(host, RateLimit.create(limit != null ? limit : remaining, remaining, reset));
+            // queued requests may fit into the new window
+            this.notifyAll();
+        }
+
+        this.writeState();
+    }
+
+    private void awaitReset(RateLimit rateLimit) {
+        long millis = Duration.between(Instant.now(), rateLimit.getResetInstant()).toMillis();
+
+        try {
+            // a little past the reset, so the window has certainly expired when this wakes up
+            this.wait(Math.max(millis, 0) + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortException("Waiting for the rate limit to reset was interrupted.", e);
+        }
+    }
+
+    private int getReserve(RateLimit rateLimit) {
+        return (int) Math.ceil(rateLimit.getLimit() * this.reservePercent / 100.0);
+    }
+
+    private void writeState() {
+        if (this.statePath == null) {
+            return;
+        }
+
+        try {
+            JsonUtils.serialize(this.statePath, this.rateLimits);
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package me.wulfmarius.modinstaller.rest;
+
+import java.util.*;
+
+public class RateLimits {
+
+    private Map<String, RateLimit> hosts = new HashMap<>();
+
+    public RateLimit get(String host) {
+        return this.hosts.get(host);
+    }
+
+    public Map<String, RateLimit> getHosts() {
+        return this.hosts;
+    }
+
+    public void put(String host, RateLimit rateLimit) {
+        this.hosts.put(host, rateLimit);
+    }
+
+    public void remove(String host) {
+        this.hosts.remove(host);
+    }
+
+    public void removeExpired() {
+        this.hosts.values().removeIf(RateLimit::isExpired);
+    }
+
+    public void setHosts(Map<String, RateLimit> hosts) {
+        this.hosts = hosts;
+    }
+}
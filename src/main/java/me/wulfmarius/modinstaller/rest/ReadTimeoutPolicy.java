@@ -0,0 +1,9 @@
+package me.wulfmarius.modinstaller.rest;
+
+import java.net.URI;
+
+@FunctionalInterface
+public interface ReadTimeoutPolicy {
+
+    int getReadTimeout(URI uri);
+}
@@ -0,0 +1,60 @@
+package me.wulfmarius.modinstaller.rest;
+
+import java.io.InterruptedIOException;
+import java.util.*;
+
+public class RequestGroup {
+
+    private static final ThreadLocal<RequestGroup> CURRENT = new ThreadLocal<>();
+
+    private final Set<Runnable> requests = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private boolean aborted;
+
+    public static RequestGroup getCurrent() {
+        return CURRENT.get();
+    }
+
+    public void abort() {
+        List<Runnable> aborts;
+        synchronized (this) {
+            this.aborted = true;
+            aborts = new ArrayList<>(this.requests);
+            this.requests.clear();
+        }
+
+        // blocking socket reads ignore interrupts, so close the connections underneath them
+        aborts.forEach(Runnable::run);
+    }
+
+    public synchronized boolean isAborted() {
+        return this.aborted;
+    }
+
+    public synchronized void register(Runnable abort) throws InterruptedIOException {
+        if (this.aborted) {
+            throw new InterruptedIOException("Request was aborted.");
+        }
+
+        this.requests.add(abort);
+    }
+
+    public void run(Runnable runnable) {
+        RequestGroup previous = CURRENT.get();
+        CURRENT.set(this);
+
+        try {
+            runnable.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public synchronized void unregister(Runnable abort) {
+        this.requests.remove(abort);
+    }
+}
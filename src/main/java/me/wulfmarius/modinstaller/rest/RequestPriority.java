@@ -0,0 +1,5 @@
+package me.wulfmarius.modinstaller.rest;
+
+public enum RequestPriority {
+    HIGH, LOW
+}
@@ -2,40 +2,59 @@ package me.wulfmarius.modinstaller.rest;
 
 import java.io.*;
 import java.net.UnknownHostException;
-import java.nio.charset.*;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
-import java.time.Instant;
-import java.util.Arrays;
+import java.text.MessageFormat;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Supplier;
 import java.util.zip.GZIPInputStream;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.core.NestedRuntimeException;
 import org.springframework.http.*;
 import org.springframework.http.client.*;
 import org.springframework.http.converter.StringHttpMessageConverter;
-import org.springframework.util.*;
+import org.springframework.util.StringUtils;
 import org.springframework.web.client.*;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import me.wulfmarius.modinstaller.*;
 import me.wulfmarius.modinstaller.ProgressListener.StepType;
-import me.wulfmarius.modinstaller.ProgressListeners;
 import me.wulfmarius.modinstaller.repository.*;
-import me.wulfmarius.modinstaller.utils.JsonUtils;
+import me.wulfmarius.modinstaller.utils.*;
 
 public class RestClient {
 
     private static final RestClient INSTANCE = new RestClient();
+    private static final long DEFAULT_FETCH_CACHE_WINDOW = 0;
+    private static final long DEFAULT_OFFLINE_RECHECK = 60000;
+
+    private final RateLimitScheduler rateLimitScheduler = new RateLimitScheduler();
+    private final SingleFlight<String, ResponseEntity<?>> fetches = new SingleFlight<>(
+            Long.getLong("FETCH_CACHE_WINDOW", DEFAULT_FETCH_CACHE_WINDOW), RestClient::share);
+    private final SingleFlight<Path, String> downloads = new SingleFlight<>(0);
+    private final Map<Path, ProgressListeners> downloadProgress = new ConcurrentHashMap<>();
+    private final RetryPolicy retryPolicy = new RetryPolicy();
+    private final AdaptiveTimeouts adaptiveTimeouts;
+    private final ProgressListeners progressListeners = new ProgressListeners();
+
+    private final long offlineRecheck = Long.getLong("OFFLINE_RECHECK", DEFAULT_OFFLINE_RECHECK);
 
     private RestTemplate restTemplate;
-    private Instant rateLimitReset;
+    private volatile boolean offline = Boolean.getBoolean("OFFLINE");
+    private volatile long detectedOffline;
 
     private RestClient() {
         super();
 
-        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        requestFactory.setConnectTimeout(10000);
-        requestFactory.setReadTimeout(10000);
+        TransportConfiguration configuration = new TransportConfiguration();
+        this.adaptiveTimeouts = new AdaptiveTimeouts(configuration.getReadTimeout());
+        configuration.setReadTimeoutPolicy(this.adaptiveTimeouts);
 
-        this.restTemplate = new RestTemplate(requestFactory);
+        this.restTemplate = new RestTemplate(TransportFactory.getDefault().create(configuration));
         this.restTemplate.setMessageConverters(Arrays.asList(new StringHttpMessageConverter()));
     }
 
@@ -43,55 +62,186 @@ public class RestClient {
         return INSTANCE;
     }
 
-    public <T> T deserialize(ResponseEntity<String> response, Class<T> type, Supplier<T> unmodifiedSupplier) {
-        if (HttpStatus.NOT_MODIFIED.equals(response.getStatusCode())) {
-            return unmodifiedSupplier.get();
+    private static Supplier<ResponseEntity<?>> share(ResponseEntity<?> response) {
+        Object body = response.getBody();
+        if (body == null) {
+            return () -> response;
         }
 
-        if (HttpStatus.NOT_FOUND.equals(response.getStatusCode())) {
-            return null;
+        // callers may modify what they receive, so each one that joined gets its own body
+        TokenBuffer buffer;
+        try {
+            buffer = JsonUtils.buffer(body);
+        } catch (IOException e) {
+            throw new RestClientException("Could not share response: " + e.getMessage(), e);
         }
 
-        try {
-            String json = response.getBody();
-            if (json.startsWith("\uFEFF")) {
-                json = json.substring(1);
+        return () -> {
+            try {
+                return ResponseEntity.status(response.getStatusCodeValue())
+                        .headers(response.getHeaders())
+                        .body(JsonUtils.deserialize(buffer, body.getClass()));
+            } catch (IOException e) {
+                throw new RestClientException("Could not copy shared response: " + e.getMessage(), e);
             }
+        };
+    }
 
-            if (json.startsWith("\u00EF\u00BB\u00BF")) {
-                json = json.substring(3);
-            }
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortException("Waiting for a retry was interrupted.", e);
+        }
+    }
 
-            return JsonUtils.deserialize(json, type);
-        } catch (IOException e) {
-            throw new SourceException("Could not deserialize: " + e.getMessage(), e);
+    public void addProgressListener(ProgressListener listener) {
+        this.progressListeners.addListener(listener);
+    }
+
+    public void configureRateLimits(Path statePath) {
+        this.rateLimitScheduler.configure(statePath);
+    }
+
+    public void configureTransport(TransportFactory transportFactory, TransportConfiguration configuration) {
+        if (configuration.getReadTimeoutPolicy() == null) {
+            this.adaptiveTimeouts.setInitialTimeout(configuration.getReadTimeout());
+            configuration.setReadTimeoutPolicy(this.adaptiveTimeouts);
         }
+
+        ClientHttpRequestFactory previousRequestFactory = this.restTemplate.getRequestFactory();
+        this.restTemplate.setRequestFactory(transportFactory.create(configuration));
+
+        if (previousRequestFactory instanceof DisposableBean) {
+            try {
+                ((DisposableBean) previousRequestFactory).destroy();
+            } catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+
+    public String downloadAsset(String url, Path assetPath, ProgressListeners progressListeners) {
+        return this.downloadAsset(url, assetPath, progressListeners, null);
     }
 
-    public void downloadAsset(String url, Path assetPath, ProgressListeners progressListeners) {
+    public String downloadAsset(String url, Path assetPath, ProgressListeners progressListeners, BandwidthLimiter bandwidthLimiter) {
+        this.checkOnline(url);
         progressListeners.stepStarted(url, StepType.DOWNLOAD);
 
-        String redirectURL = url;
-        while (redirectURL != null) {
-            redirectURL = this.restTemplate.execute(redirectURL, HttpMethod.GET, this::prepareRequest,
-                    new DownloadResponseExtractor(assetPath, progressListeners));
+        // callers joining a running download receive its progress as well
+        Path key = assetPath.toAbsolutePath().normalize();
+        ProgressListener forwarder = new ForwardingProgressListener(progressListeners);
+        ProgressListeners sharedListeners = this.downloadProgress.compute(key, (path, listeners) -> {
+            ProgressListeners result = listeners == null ? new ProgressListeners() : listeners;
+            result.addListener(forwarder);
+            return result;
+        });
+
+        try {
+            return this.downloads.execute(key, () -> this.performDownload(url, assetPath, sharedListeners, bandwidthLimiter));
+        } finally {
+            this.downloadProgress.computeIfPresent(key, (path, listeners) -> {
+                listeners.removeListener(forwarder);
+                return listeners.isEmpty() ? null : listeners;
+            });
+        }
+    }
+
+    public <T> ResponseEntity<T> fetch(String url, String etag, Class<T> type, Supplier<T> unmodifiedSupplier) {
+        return this.fetch(url, etag, type, unmodifiedSupplier, RequestPriority.HIGH);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> fetch(String url, String etag, Class<T> type, Supplier<T> unmodifiedSupplier,
+            RequestPriority priority) {
+        this.checkOnline(url);
+
+        String key = url + "\n" + etag + "\n" + type.getName();
+        ResponseEntity<T> response = (ResponseEntity<T>) this.fetches.execute(key, () -> this.performFetch(url, etag, type, priority));
+        if (HttpStatus.NOT_MODIFIED.equals(response.getStatusCode()) && unmodifiedSupplier != null) {
+            return ResponseEntity.status(response.getStatusCodeValue()).headers(response.getHeaders()).body(unmodifiedSupplier.get());
+        }
+
+        return response;
+    }
+
+    public boolean isOffline() {
+        if (this.offline) {
+            return true;
         }
+
+        // a detected outage is only trusted for a while, so the connection can come back on its own
+        return this.detectedOffline != 0 && System.currentTimeMillis() - this.detectedOffline < this.offlineRecheck;
+    }
+
+    public void removeProgressListener(ProgressListener listener) {
+        this.progressListeners.removeListener(listener);
     }
 
-    public ResponseEntity<String> fetch(String url, String etag) {
-        if (this.isRateLimitReached()) {
-            throw new RateLimitException(this.rateLimitReset);
+    public void setOffline(boolean offline) {
+        this.offline = offline;
+        this.detectedOffline = 0;
+    }
+
+    private void checkOnline(String url) {
+        if (this.isOffline()) {
+            throw new OfflineException(url);
         }
+    }
+
+    private <T> T execute(String url, RequestCallback requestCallback, ResponseExtractor<T> responseExtractor,
+            ProgressListeners listeners) {
+        String host = UrlUtils.getHost(url);
+        long started = System.nanoTime();
+
+        for (int retry = 0;; retry++) {
+            try {
+                T result = this.restTemplate.execute(url, HttpMethod.GET, requestCallback,
+                        new TimedResponseExtractor<>(responseExtractor, host, this.adaptiveTimeouts));
+                if (retry > 0) {
+                    listeners.detail(MessageFormat.format("Succeeded after {0} {0,choice,1#retry|1<retries} in {1} ms", retry,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)));
+                }
+                return result;
+            } catch (HttpServerErrorException | ResourceAccessException e) {
+                if (RetryPolicy.isHostUnreachable(e)) {
+                    this.detectedOffline = System.currentTimeMillis();
+                    listeners.detail("Could not reach " + host + ", switching to offline mode.");
+                }
+
+                if (RetryPolicy.isTimeout(e)) {
+                    this.adaptiveTimeouts.recordTimeout(host);
+                }
+
+                if (retry >= this.retryPolicy.getMaxRetries() || !this.retryPolicy.isRetryable(e)) {
+                    throw e;
+                }
+
+                long delay = this.retryPolicy.getDelay(retry + 1);
+                listeners.detail(MessageFormat.format("{0} failed: {1}. Retry {2} of {3} in {4} ms, read timeout {5} ms", host,
+                        StringUtils.trimTrailingCharacter(e.getMostSpecificCause().getMessage(), '.'), retry + 1,
+                        this.retryPolicy.getMaxRetries(), delay, this.adaptiveTimeouts.getReadTimeout(host)));
+                sleep(delay);
+            }
+        }
+    }
+
+    private <T> ResponseEntity<T> performFetch(String url, String etag, Class<T> type, RequestPriority priority) {
+        this.rateLimitScheduler.acquire(url, priority);
 
         try {
-            ResponseEntity<String> responseEntity = this.restTemplate.execute(url, HttpMethod.GET, new GZipRequestCallback(etag),
-                    new GzipResponseExtractor());
+            ResponseEntity<T> responseEntity = this.execute(url, new GZipRequestCallback(etag), new JsonResponseExtractor<>(type, null),
+                    this.progressListeners);
 
-            this.handleRateLimit(responseEntity.getHeaders());
+            this.rateLimitScheduler.update(url, responseEntity.getHeaders());
             return responseEntity;
         } catch (HttpClientErrorException e) {
-            this.handleRateLimit(e.getResponseHeaders());
-            return ResponseEntity.status(e.getRawStatusCode()).headers(e.getResponseHeaders()).body(e.getStatusText());
+            this.rateLimitScheduler.update(url, e.getResponseHeaders());
+            return ResponseEntity.status(e.getRawStatusCode()).headers(e.getResponseHeaders()).build();
+        } catch (SourceException e) {
+            throw e;
         } catch (NestedRuntimeException e) {
             Throwable mostSpecificCause = e.getMostSpecificCause();
             if (mostSpecificCause instanceof UnknownHostException) {
@@ -103,35 +253,93 @@ public class RestClient {
         }
     }
 
-    private void handleRateLimit(HttpHeaders headers) {
-        String remaining = headers.getFirst("X-RateLimit-Remaining");
-        if (StringUtils.isEmpty(remaining) || !remaining.equals("0")) {
-            return;
-        }
+    private String performDownload(String url, Path assetPath, ProgressListeners progressListeners,
+            BandwidthLimiter bandwidthLimiter) {
+        PartialDownload partialDownload = new PartialDownload(assetPath);
+        try {
+            this.performDownload(url, partialDownload, progressListeners, bandwidthLimiter);
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() != HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE) {
+                throw e;
+            }
 
-        String reset = headers.getFirst("X-RateLimit-Reset");
-        if (StringUtils.isEmpty(reset)) {
-            return;
+            progressListeners.detail("Cannot resume, restarting download.");
+            partialDownload.discard();
+            this.performDownload(url, partialDownload, progressListeners, bandwidthLimiter);
         }
 
-        this.rateLimitReset = Instant.ofEpochSecond(Long.parseLong(reset));
+        return partialDownload.getDigest();
     }
 
-    private boolean isRateLimitReached() {
-        if (this.rateLimitReset == null) {
-            return false;
+    private void performDownload(String url, PartialDownload partialDownload, ProgressListeners progressListeners,
+            BandwidthLimiter bandwidthLimiter) {
+        String redirectURL = url;
+        while (redirectURL != null) {
+            redirectURL = this.execute(redirectURL, new DownloadRequestCallback(partialDownload),
+                    new DownloadResponseExtractor(partialDownload, progressListeners, bandwidthLimiter), progressListeners);
         }
+    }
+
+    protected static class DownloadRequestCallback implements RequestCallback {
+
+        private final PartialDownload partialDownload;
 
-        if (this.rateLimitReset.isBefore(Instant.now())) {
-            this.rateLimitReset = null;
-            return false;
+        public DownloadRequestCallback(PartialDownload partialDownload) {
+            super();
+            this.partialDownload = partialDownload;
         }
 
-        return true;
+        @Override
+        public void doWithRequest(ClientHttpRequest request) throws IOException {
+            // downloads are stored as received, so make sure the transport does not negotiate a content encoding
+            request.getHeaders().set("Accept-Encoding", "identity");
+
+            long resumeOffset = this.partialDownload.getResumeOffset();
+            if (resumeOffset > 0) {
+                request.getHeaders().set(HttpHeaders.RANGE, "bytes=" + resumeOffset + "-");
+                request.getHeaders().set(HttpHeaders.IF_RANGE, this.partialDownload.getValidator());
+            }
+        }
     }
 
-    private void prepareRequest(@SuppressWarnings("unused") ClientHttpRequest request) {
-        // nothing to do
+    protected static class ForwardingProgressListener implements ProgressListener {
+
+        private final ProgressListeners progressListeners;
+
+        public ForwardingProgressListener(ProgressListeners progressListeners) {
+            super();
+            this.progressListeners = progressListeners;
+        }
+
+        @Override
+        public void finished(String message) {
+            this.progressListeners.finished(message);
+        }
+
+        @Override
+        public void started(String name) {
+            this.progressListeners.started(name);
+        }
+
+        @Override
+        public void stepDetail(String detail) {
+            this.progressListeners.detail(detail);
+        }
+
+        @Override
+        public void stepError(String error) {
+            this.progressListeners.error(error);
+        }
+
+        @Override
+        public void stepProgress(int completed, int total) {
+            this.progressListeners.stepProgress(completed, total);
+        }
+
+        @Override
+        public void stepStarted(String step, StepType stepType) {
+            this.progressListeners.stepStarted(step, stepType);
+        }
     }
 
     protected static class GZipRequestCallback implements RequestCallback {
@@ -146,11 +354,23 @@ public class RestClient {
         @Override
         public void doWithRequest(ClientHttpRequest request) throws IOException {
             request.getHeaders().setIfNoneMatch(this.etag);
-            request.getHeaders().add("Accept-Encoding", "application/gzip");
+            request.getHeaders().set("Accept-Encoding", "gzip");
         }
     }
 
-    protected static class GzipResponseExtractor implements ResponseExtractor<ResponseEntity<String>> {
+    protected static class JsonResponseExtractor<T> implements ResponseExtractor<ResponseEntity<T>> {
+
+        private static final byte[] UTF8_BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
+        private final Class<T> type;
+        private final Supplier<T> unmodifiedSupplier;
+
+        public JsonResponseExtractor(Class<T> type, Supplier<T> unmodifiedSupplier) {
+            super();
+
+            this.type = type;
+            this.unmodifiedSupplier = unmodifiedSupplier;
+        }
 
         private static Charset getCharset(ClientHttpResponse response) {
             try {
@@ -162,20 +382,154 @@ public class RestClient {
                 // ignore
             }
 
-            return StandardCharsets.ISO_8859_1;
+            return null;
+        }
+
+        private static InputStream skipByteOrderMark(InputStream inputStream) throws IOException {
+            PushbackInputStream result = new PushbackInputStream(inputStream, UTF8_BOM.length);
+
+            byte[] buffer = new byte[UTF8_BOM.length];
+            int count = 0;
+            while (count < buffer.length) {
+                int read = result.read(buffer, count, buffer.length - count);
+                if (read == -1) {
+                    break;
+                }
+                count += read;
+            }
+
+            if (count != UTF8_BOM.length || !Arrays.equals(buffer, UTF8_BOM)) {
+                result.unread(buffer, 0, count);
+            }
+
+            return result;
         }
 
         @Override
-        public ResponseEntity<String> extractData(ClientHttpResponse response) throws IOException {
+        public ResponseEntity<T> extractData(ClientHttpResponse response) throws IOException {
+            if (HttpStatus.NOT_MODIFIED.equals(response.getStatusCode())) {
+                T body = this.unmodifiedSupplier == null ? null : this.unmodifiedSupplier.get();
+                return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).body(body);
+            }
+
+            try (InputStream inputStream = this.getBody(response)) {
+                T body = this.deserialize(inputStream, getCharset(response));
+                return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).body(body);
+            }
+        }
+
+        private T deserialize(InputStream inputStream, Charset charset) throws IOException {
+            try {
+                if (charset == null || charset.name().startsWith("UTF-")) {
+                    return JsonUtils.deserialize(inputStream, this.type);
+                }
+
+                return JsonUtils.deserialize(new InputStreamReader(inputStream, charset), this.type);
+            } catch (JsonProcessingException e) {
+                throw new SourceException("Could not deserialize: " + e.getMessage(), e);
+            }
+        }
+
+        private InputStream getBody(ClientHttpResponse response) throws IOException {
             InputStream inputStream = response.getBody();
             if ("gzip".equalsIgnoreCase(response.getHeaders().getFirst("Content-Encoding"))) {
                 inputStream = new GZIPInputStream(inputStream);
             }
 
-            Charset charset = getCharset(response);
-            String body = StreamUtils.copyToString(inputStream, charset);
+            return skipByteOrderMark(inputStream);
+        }
+    }
+
+    protected static class TimedResponseExtractor<T> implements ResponseExtractor<T> {
+
+        private final ResponseExtractor<T> delegate;
+        private final String host;
+        private final AdaptiveTimeouts adaptiveTimeouts;
+        private final long started = System.nanoTime();
 
-            return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).body(body);
+        public TimedResponseExtractor(ResponseExtractor<T> delegate, String host, AdaptiveTimeouts adaptiveTimeouts) {
+            super();
+
+            this.delegate = delegate;
+            this.host = host;
+            this.adaptiveTimeouts = adaptiveTimeouts;
+        }
+
+        @Override
+        public T extractData(ClientHttpResponse response) throws IOException {
+            long transferStarted = System.nanoTime();
+            CountingResponse countingResponse = new CountingResponse(response);
+            T result = this.delegate.extractData(countingResponse);
+
+            this.adaptiveTimeouts.recordTransfer(this.host, TimeUnit.NANOSECONDS.toMillis(transferStarted - this.started),
+                    countingResponse.getCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - transferStarted));
+            return result;
+        }
+    }
+
+    private static class CountingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+
+        private long count;
+
+        public CountingResponse(ClientHttpResponse response) {
+            super();
+
+            this.response = response;
+        }
+
+        @Override
+        public void close() {
+            this.response.close();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return new FilterInputStream(this.response.getBody()) {
+
+                @Override
+                public int read() throws IOException {
+                    int result = super.read();
+                    if (result != -1) {
+                        CountingResponse.this.count++;
+                    }
+                    return result;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int result = super.read(buffer, offset, length);
+                    if (result > 0) {
+                        CountingResponse.this.count += result;
+                    }
+                    return result;
+                }
+            };
+        }
+
+        public long getCount() {
+            return this.count;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.response.getHeaders();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return this.response.getRawStatusCode();
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return this.response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return this.response.getStatusText();
         }
     }
 }
@@ -0,0 +1,75 @@
+package me.wulfmarius.modinstaller.rest;
+
+import java.net.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.web.client.*;
+
+public class RetryPolicy {
+
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final long DEFAULT_BASE_DELAY = 500;
+    private static final long MAXIMUM_DELAY = 8000;
+
+    private final int maxRetries;
+    private final long baseDelay;
+
+    public RetryPolicy() {
+        this(Integer.getInteger("HTTP_RETRIES", DEFAULT_MAX_RETRIES), Long.getLong("HTTP_RETRY_DELAY", DEFAULT_BASE_DELAY));
+    }
+
+    public RetryPolicy(int maxRetries, long baseDelay) {
+        super();
+
+        this.maxRetries = maxRetries;
+        this.baseDelay = baseDelay;
+    }
+
+    public static boolean isHostUnreachable(Throwable throwable) {
+        return hasCause(throwable, UnknownHostException.class) || hasCause(throwable, NoRouteToHostException.class);
+    }
+
+    public static boolean isTimeout(Throwable throwable) {
+        return hasCause(throwable, SocketTimeoutException.class);
+    }
+
+    private static boolean hasCause(Throwable throwable, Class<? extends Throwable> type) {
+        Throwable current = throwable;
+        while (current != null) {
+            if (type.isInstance(current)) {
+                return true;
+            }
+
+            current = current.getCause();
+        }
+
+        return false;
+    }
+
+    public long getDelay(int retry) {
+        long ceiling = Math.min(MAXIMUM_DELAY, this.baseDelay << Math.min(retry - 1, 16));
+        // spread retries of concurrent requests, so they do not hit the host again at the same time
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    public int getMaxRetries() {
+        return this.maxRetries;
+    }
+
+    public boolean isRetryable(RuntimeException exception) {
+        RequestGroup requestGroup = RequestGroup.getCurrent();
+        if (requestGroup != null && requestGroup.isAborted()) {
+            return false;
+        }
+
+        if (exception instanceof HttpServerErrorException) {
+            return true;
+        }
+
+        if (exception instanceof ResourceAccessException) {
+            return !isHostUnreachable(exception);
+        }
+
+        return false;
+    }
+}
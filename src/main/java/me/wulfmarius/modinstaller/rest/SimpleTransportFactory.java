@@ -0,0 +1,50 @@
+package me.wulfmarius.modinstaller.rest;
+
+import java.io.IOException;
+import java.net.*;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.*;
+
+public class SimpleTransportFactory implements TransportFactory {
+
+    @Override
+    public ClientHttpRequestFactory create(TransportConfiguration configuration) {
+        ThreadLocal<HttpURLConnection> createdConnection = new ThreadLocal<>();
+        SimpleClientHttpRequestFactory result = new SimpleClientHttpRequestFactory() {
+
+            @Override
+            public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+                try {
+                    ClientHttpRequest request = super.createRequest(uri, httpMethod);
+                    HttpURLConnection connection = createdConnection.get();
+                    return new AbortableRequest(request, connection::disconnect);
+                } finally {
+                    createdConnection.remove();
+                }
+            }
+
+            @Override
+            protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+                super.prepareConnection(connection, httpMethod);
+                createdConnection.set(connection);
+
+                ReadTimeoutPolicy readTimeoutPolicy = configuration.getReadTimeoutPolicy();
+                if (readTimeoutPolicy == null) {
+                    return;
+                }
+
+                try {
+                    connection.setReadTimeout(readTimeoutPolicy.getReadTimeout(connection.getURL().toURI()));
+                } catch (URISyntaxException e) {
+                    // keep the configured read timeout
+                }
+            }
+        };
+
+        result.setConnectTimeout(configuration.getConnectTimeout());
+        result.setReadTimeout(configuration.getReadTimeout());
+
+        return result;
+    }
+}
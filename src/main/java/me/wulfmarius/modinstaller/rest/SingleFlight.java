@@ -0,0 +1,158 @@
+package me.wulfmarius.modinstaller.rest;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.*;
+
+import me.wulfmarius.modinstaller.AbortException;
+
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final Map<K, CachedResult<V>> results = new ConcurrentHashMap<>();
+    private final Function<V, Supplier<V>> sharing;
+
+    private volatile long cacheWindow;
+
+    public SingleFlight(long cacheWindow) {
+        this(cacheWindow, value -> () -> value);
+    }
+
+    public SingleFlight(long cacheWindow, Function<V, Supplier<V>> sharing) {
+        super();
+
+        this.cacheWindow = cacheWindow;
+        this.sharing = sharing;
+    }
+
+    private static <V> V await(CompletableFuture<Supplier<V>> future) {
+        try {
+            return future.get().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortException("Waiting for a shared request was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+
+            throw new RestClientException("Shared request failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    public void clear() {
+        this.results.clear();
+    }
+
+    public V execute(K key, Supplier<V> supplier) {
+        while (true) {
+            CachedResult<V> cachedResult = this.results.get(key);
+            if (cachedResult != null) {
+                if (!cachedResult.isExpired()) {
+                    return cachedResult.getValue();
+                }
+
+                this.results.remove(key, cachedResult);
+            }
+
+            Flight<V> flight = new Flight<>();
+            Flight<V> existing = this.inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                return this.lead(key, flight, supplier);
+            }
+
+            if (existing.join()) {
+                return await(existing.getFuture());
+            }
+
+            // the flight finished before this caller could join, so look again
+        }
+    }
+
+    public long getCacheWindow() {
+        return this.cacheWindow;
+    }
+
+    public void setCacheWindow(long cacheWindow) {
+        this.cacheWindow = cacheWindow;
+        this.results.clear();
+    }
+
+    private V lead(K key, Flight<V> flight, Supplier<V> supplier) {
+        V result;
+        try {
+            result = supplier.get();
+        } catch (RuntimeException | Error e) {
+            this.inFlight.remove(key, flight);
+            flight.close();
+            flight.getFuture().completeExceptionally(e);
+            throw e;
+        }
+
+        this.inFlight.remove(key, flight);
+        boolean joined = flight.close();
+        long window = this.cacheWindow;
+        if (!joined && window <= 0) {
+            // nobody else will see this result, so the caller can keep it as it is
+            flight.getFuture().complete(null);
+            return result;
+        }
+
+        try {
+            Supplier<V> shared = this.sharing.apply(result);
+            if (window > 0) {
+                this.results.values().removeIf(CachedResult::isExpired);
+                this.results.put(key, new CachedResult<>(shared, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(window)));
+            }
+            flight.getFuture().complete(shared);
+        } catch (RuntimeException | Error e) {
+            flight.getFuture().completeExceptionally(e);
+        }
+
+        return result;
+    }
+
+    private static class CachedResult<V> {
+
+        private final Supplier<V> value;
+        private final long expiration;
+
+        public CachedResult(Supplier<V> value, long expiration) {
+            super();
+
+            this.value = value;
+            this.expiration = expiration;
+        }
+
+        public V getValue() {
+            return this.value.get();
+        }
+
+        public boolean isExpired() {
+            return System.nanoTime() - this.expiration > 0;
+        }
+    }
+
+    private static class Flight<V> {
+
+        private final CompletableFuture<Supplier<V>> future = new CompletableFuture<>();
+        private final AtomicInteger joined = new AtomicInteger();
+
+        public boolean close() {
+            return this.joined.getAndSet(-1) > 0;
+        }
+
+        public CompletableFuture<Supplier<V>> getFuture() {
+            return this.future;
+        }
+
+        public boolean join() {
+            return this.joined.getAndUpdate(count -> count < 0 ? count : count + 1) >= 0;
+        }
+    }
+}
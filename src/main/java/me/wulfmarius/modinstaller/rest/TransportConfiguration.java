@@ -0,0 +1,59 @@
+package me.wulfmarius.modinstaller.rest;
+
+public class TransportConfiguration {
+
+    private int maxConnections = Integer.getInteger("HTTP_MAX_CONNECTIONS", 32);
+    private int maxConnectionsPerHost = Integer.getInteger("HTTP_MAX_CONNECTIONS_PER_HOST", 8);
+    private int connectTimeout = Integer.getInteger("HTTP_CONNECT_TIMEOUT", 10000);
+    private int readTimeout = Integer.getInteger("HTTP_READ_TIMEOUT", 10000);
+    private int keepAlive = Integer.getInteger("HTTP_KEEP_ALIVE", 30000);
+    private ReadTimeoutPolicy readTimeoutPolicy;
+
+    public int getConnectTimeout() {
+        return this.connectTimeout;
+    }
+
+    public int getKeepAlive() {
+        return this.keepAlive;
+    }
+
+    public int getMaxConnections() {
+        return this.maxConnections;
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return this.maxConnectionsPerHost;
+    }
+
+    public int getReadTimeout() {
+        return this.readTimeout;
+    }
+
+    public ReadTimeoutPolicy getReadTimeoutPolicy() {
+        return this.readTimeoutPolicy;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public void setKeepAlive(int keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public void setReadTimeoutPolicy(ReadTimeoutPolicy readTimeoutPolicy) {
+        this.readTimeoutPolicy = readTimeoutPolicy;
+    }
+}
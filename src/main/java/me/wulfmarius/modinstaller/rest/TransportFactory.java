@@ -0,0 +1,16 @@
+package me.wulfmarius.modinstaller.rest;
+
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+public interface TransportFactory {
+
+    ClientHttpRequestFactory create(TransportConfiguration configuration);
+
+    static TransportFactory getDefault() {
+        if ("simple".equalsIgnoreCase(System.getProperty("HTTP_TRANSPORT"))) {
+            return new SimpleTransportFactory();
+        }
+
+        return new PooledTransportFactory();
+    }
+}
@@ -0,0 +1,137 @@
+package me.wulfmarius.modinstaller.ui;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+import me.wulfmarius.modinstaller.ProgressListener;
+
+public class CoalescingProgressListener implements ProgressListener {
+
+    private static final long DEFAULT_INTERVAL = 16;
+    private static final Timer TIMER = new Timer("progress-publisher", true);
+
+    private final ProgressListener delegate;
+    private final long interval;
+    private final Consumer<Runnable> publisher;
+
+    private final Deque<Consumer<ProgressListener>> events = new ArrayDeque<>();
+    private boolean scheduled;
+    private volatile long lastPublished;
+
+    public CoalescingProgressListener(ProgressListener delegate) {
+        this(delegate, DEFAULT_INTERVAL);
+    }
+
+    public CoalescingProgressListener(ProgressListener delegate, long interval) {
+        this(delegate, interval, Platform::runLater);
+    }
+
+    public CoalescingProgressListener(ProgressListener delegate, long interval, Consumer<Runnable> publisher) {
+        super();
+
+        this.delegate = delegate;
+        this.interval = interval;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void finished(String message) {
+        this.enqueue(listener -> listener.finished(message), false);
+    }
+
+    @Override
+    public void started(String name) {
+        this.enqueue(listener -> listener.started(name), false);
+    }
+
+    @Override
+    public void stepDetail(String detail) {
+        this.enqueue(listener -> listener.stepDetail(detail), false);
+    }
+
+    @Override
+    public void stepError(String error) {
+        this.enqueue(listener -> listener.stepError(error), true);
+    }
+
+    @Override
+    public void stepProgress(int completed, int total) {
+        synchronized (this.events) {
+            Consumer<ProgressListener> last = this.events.peekLast();
+            if (last instanceof ProgressUpdate) {
+                // only the most recent progress of a step is worth showing
+                ((ProgressUpdate) last).set(completed, total);
+                return;
+            }
+        }
+
+        this.enqueue(new ProgressUpdate(completed, total), false);
+    }
+
+    @Override
+    public void stepStarted(String step, StepType stepType) {
+        this.enqueue(listener -> listener.stepStarted(step, stepType), false);
+    }
+
+    private void enqueue(Consumer<ProgressListener> event, boolean immediate) {
+        boolean schedule;
+        synchronized (this.events) {
+            this.events.add(event);
+            schedule = immediate || !this.scheduled;
+            this.scheduled = true;
+        }
+
+        if (!schedule) {
+            return;
+        }
+
+        long delay = immediate ? 0 : this.lastPublished + this.interval - System.currentTimeMillis();
+        if (delay <= 0) {
+            this.publisher.accept(this::publish);
+            return;
+        }
+
+        TIMER.schedule(new TimerTask() {
+
+            @Override
+            public void run() {
+                CoalescingProgressListener.this.publisher.accept(CoalescingProgressListener.this::publish);
+            }
+        }, delay);
+    }
+
+    private void publish() {
+        List<Consumer<ProgressListener>> pending;
+        synchronized (this.events) {
+            pending = new ArrayList<>(this.events);
+            this.events.clear();
+            this.scheduled = false;
+        }
+
+        this.lastPublished = System.currentTimeMillis();
+        pending.forEach(event -> event.accept(this.delegate));
+    }
+
+    private static class ProgressUpdate implements Consumer<ProgressListener> {
+
+        private int completed;
+        private int total;
+
+        public ProgressUpdate(int completed, int total) {
+            super();
+
+            this.set(completed, total);
+        }
+
+        @Override
+        public void accept(ProgressListener listener) {
+            listener.stepProgress(this.completed, this.total);
+        }
+
+        public void set(int completed, int total) {
+            this.completed = completed;
+            this.total = total;
+        }
+    }
+}
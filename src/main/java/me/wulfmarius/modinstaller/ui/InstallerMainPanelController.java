@@ -51,6 +51,9 @@ public class InstallerMainPanelController {
     @FXML
     private ComboBox<ModDefinitionFilter> comboBoxFilter;
 
+    @FXML
+    private ToggleButton toggleButtonOffline;
+
     @FXML
     private TableColumn<ModDefinition, String> columnName;
     @FXML
@@ -259,6 +262,7 @@ public class InstallerMainPanelController {
         }
 
         ModInstallerUI.setTitle("TLD Mod-Installer " + ModInstaller.VERSION + " (TLD Version: " + this.modInstaller.getTldVersion() + ")");
+        this.toggleButtonOffline.setSelected(this.modInstaller.isOffline());
 
         if (this.modInstaller.isNewVersionAvailable()) {
             this.askDownloadNewVersion();
@@ -288,6 +292,11 @@ public class InstallerMainPanelController {
         }
     }
 
+    @FXML
+    private void toggleOffline() {
+        this.modInstaller.setOffline(this.toggleButtonOffline.isSelected());
+    }
+
     private void updateModDefinitions() {
         Platform.runLater(() -> {
             this.tableView.getItems().setAll(this.getModDefinitions(this.comboBoxFilter.getValue()));
@@ -15,6 +15,7 @@ import me.wulfmarius.modinstaller.*;
 public class ProgressDialogController implements ProgressListener {
 
     private final ModInstaller modInstaller;
+    private final ProgressListener coalescingListener = new CoalescingProgressListener(this);
 
     private String currentStep;
     private StepType currentStepType;
@@ -126,8 +127,8 @@ public class ProgressDialogController implements ProgressListener {
 
         this.progressBarStep.setProgress((double) completed / total);
         if (this.currentStepType == StepType.DOWNLOAD) {
-            this.labelStep.setText(this.currentStepType + " " + shortenPath(this.currentStep) + ": " + formatByteCount(completed) + "/"
-                    + formatByteCount(total));
+            this.labelStep.setText(this.currentStepType + " " + shortenPath(this.currentStep) + ": " + formatByteCount(completed * 1024L)
+                    + "/" + formatByteCount(total * 1024L));
         }
     }
 
@@ -153,13 +154,13 @@ public class ProgressDialogController implements ProgressListener {
 
     @FXML
     private void initialize() {
-        this.modInstaller.addProgressListener(this);
+        this.modInstaller.addProgressListener(this.coalescingListener);
         this.labelTime.textProperty().bind(this.clock.formattedTime);
     }
 
     @FXML
     private void onClose() {
-        this.modInstaller.removeProgressListener(this);
+        this.modInstaller.removeProgressListener(this.coalescingListener);
         this.buttonClose.getScene().getWindow().hide();
     }
 
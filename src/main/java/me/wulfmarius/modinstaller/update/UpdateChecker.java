@@ -48,9 +48,10 @@ public class UpdateChecker {
             return;
         }
 
-        ResponseEntity<String> response = this.restClient.fetch(LATEST_RELEASE_URL, this.state.getEtag());
+        ResponseEntity<GithubRelease> response = this.restClient.fetch(LATEST_RELEASE_URL, this.state.getEtag(), GithubRelease.class,
+                GithubRelease::new);
         if (response.getStatusCode().is2xxSuccessful()) {
-            GithubRelease latestRelease = this.restClient.deserialize(response, GithubRelease.class, GithubRelease::new);
+            GithubRelease latestRelease = response.getBody();
             this.state.setLatestVersion(latestRelease.getName());
 
             GithubAsset[] assets = latestRelease.getAssets();
@@ -125,6 +126,10 @@ public class UpdateChecker {
     }
 
     private boolean canCheckForNewVersion() {
+        if (this.restClient.isOffline()) {
+            return false;
+        }
+
         if (this.state.getChecked() == null) {
             return true;
         }
@@ -0,0 +1,54 @@
+package me.wulfmarius.modinstaller.utils;
+
+import java.io.*;
+import java.nio.file.*;
+import java.security.*;
+
+public class HashUtils {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    public static MessageDigest createSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported.", e);
+        }
+    }
+
+    public static String sha256(byte[] bytes) {
+        return toHex(createSha256().digest(bytes));
+    }
+
+    public static String sha256(Path path) throws IOException {
+        MessageDigest messageDigest = createSha256();
+        update(messageDigest, path);
+        return toHex(messageDigest.digest());
+    }
+
+    public static String toHex(byte[] bytes) {
+        char[] result = new char[bytes.length * 2];
+
+        for (int i = 0; i < bytes.length; i++) {
+            result[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            result[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+
+        return new String(result);
+    }
+
+    public static void update(MessageDigest messageDigest, Path path) throws IOException {
+        byte[] buffer = new byte[65536];
+
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            while (true) {
+                int count = inputStream.read(buffer);
+                if (count == -1) {
+                    break;
+                }
+
+                messageDigest.update(buffer, 0, count);
+            }
+        }
+    }
+}
@@ -6,19 +6,27 @@ import java.nio.file.*;
 import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
 public class JsonUtils {
 
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectMapper BINARY_OBJECT_MAPPER = new ObjectMapper(new SmileFactory());
 
     static {
-        OBJECT_MAPPER.setSerializationInclusion(Include.NON_NULL);
-        OBJECT_MAPPER.setVisibility(PropertyAccessor.ALL, Visibility.NONE);
-        OBJECT_MAPPER.setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+        configure(OBJECT_MAPPER);
         OBJECT_MAPPER.configure(SerializationFeature.INDENT_OUTPUT, true);
-        OBJECT_MAPPER.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-        OBJECT_MAPPER.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        configure(BINARY_OBJECT_MAPPER);
+    }
+
+    public static TokenBuffer buffer(Object value) throws IOException {
+        TokenBuffer result = new TokenBuffer(OBJECT_MAPPER, false);
+        OBJECT_MAPPER.writeValue(result, value);
+        return result;
     }
 
     public static <T> T deserialize(InputStream inputStream, Class<T> type) throws IOException {
@@ -31,13 +39,54 @@ public class JsonUtils {
         }
     }
 
+    public static <T> T deserialize(Reader reader, Class<T> type) throws IOException {
+        return OBJECT_MAPPER.readValue(reader, type);
+    }
+
     public static <T> T deserialize(String content, Class<T> type) throws IOException {
         return OBJECT_MAPPER.readValue(content, type);
     }
 
+    public static <T> T deserialize(TokenBuffer buffer, Class<T> type) throws IOException {
+        try (JsonParser parser = buffer.asParser()) {
+            return OBJECT_MAPPER.readValue(parser, type);
+        }
+    }
+
+    public static <T> T deserializeBinary(InputStream inputStream, Class<T> type) throws IOException {
+        return BINARY_OBJECT_MAPPER.readValue(inputStream, type);
+    }
+
     public static void serialize(Path path, Object value) throws IOException {
         try (OutputStream outputStream = Files.newOutputStream(path)) {
             OBJECT_MAPPER.writeValue(outputStream, value);
         }
     }
+
+    public static void serializeAtomically(Path path, Object value) throws IOException {
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        serialize(tempPath, value);
+
+        try {
+            Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static void serializeBinary(OutputStream outputStream, Object value) throws IOException {
+        BINARY_OBJECT_MAPPER.writeValue(outputStream, value);
+    }
+
+    public static byte[] serializeLine(Object value) throws IOException {
+        return OBJECT_MAPPER.writer().without(SerializationFeature.INDENT_OUTPUT).writeValueAsBytes(value);
+    }
+
+    private static void configure(ObjectMapper objectMapper) {
+        objectMapper.setSerializationInclusion(Include.NON_NULL);
+        objectMapper.setVisibility(PropertyAccessor.ALL, Visibility.NONE);
+        objectMapper.setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+        objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
 }
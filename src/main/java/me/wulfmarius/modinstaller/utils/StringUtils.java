@@ -35,6 +35,15 @@ public class StringUtils {
         return path.substring(0, firstPartLength) + "..." + path.substring(path.length() - lastPathLength, path.length());
     }
 
+    public static int toKiByteCount(long byteCount) {
+        if (byteCount < 0) {
+            return -1;
+        }
+
+        // round up, so small downloads do not report a total of 0
+        return (int) Math.min((byteCount + KI_BYTE - 1) / KI_BYTE, Integer.MAX_VALUE);
+    }
+
     public static String trimToEmpty(String value) {
         if (value == null) {
             return "";
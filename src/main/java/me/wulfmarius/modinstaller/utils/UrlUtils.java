@@ -0,0 +1,14 @@
+package me.wulfmarius.modinstaller.utils;
+
+import java.net.URI;
+
+public class UrlUtils {
+
+    public static String getHost(String url) {
+        try {
+            return String.valueOf(URI.create(url).getHost());
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+}
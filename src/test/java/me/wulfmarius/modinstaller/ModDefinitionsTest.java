@@ -0,0 +1,39 @@
+package me.wulfmarius.modinstaller;
+
+import static org.junit.Assert.*;
+
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class ModDefinitionsTest {
+
+    private static ModDefinition createModDefinition(String name, String version) {
+        ModDefinition result = new ModDefinition();
+
+        result.setName(name);
+        result.setVersion(version);
+
+        return result;
+    }
+
+    @Test
+    public void collectorKeepsOrderAndDropsDuplicates() {
+        ModDefinitions modDefinitions = Stream.of(createModDefinition("A", "2.0"), createModDefinition("B", "1.0"),
+                createModDefinition("A", "2.0.0"), createModDefinition("A", "1.0")).collect(ModDefinitions.toModDefinitions());
+
+        assertEquals(3, modDefinitions.getSize());
+        assertArrayEquals(new String[] { "A 2.0", "B 1.0", "A 1.0" },
+                modDefinitions.stream().map(ModDefinition::getDisplayName).toArray(String[]::new));
+    }
+
+    @Test
+    public void equalVersionsHashAlike() {
+        ModDefinition shortVersion = createModDefinition("A", "1.0");
+        ModDefinition fullVersion = createModDefinition("A", "1.0.0");
+
+        assertEquals(shortVersion, fullVersion);
+        assertEquals(shortVersion.hashCode(), fullVersion.hashCode());
+        assertTrue(ModDefinitions.create(shortVersion).contains(fullVersion));
+    }
+}
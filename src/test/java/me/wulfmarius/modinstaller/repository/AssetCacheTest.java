@@ -0,0 +1,109 @@
+package me.wulfmarius.modinstaller.repository;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+import org.junit.*;
+import org.springframework.util.FileSystemUtils;
+
+import me.wulfmarius.modinstaller.*;
+import me.wulfmarius.modinstaller.utils.HashUtils;
+
+public class AssetCacheTest {
+
+    private static final int SIZE = 1024;
+
+    private Path basePath;
+    private AssetStore assetStore;
+    private AssetCache assetCache;
+
+    private static ModDefinition createModDefinition(String name) {
+        ModDefinition result = new ModDefinition();
+
+        result.setName(name);
+        result.setVersion("1.0.0");
+        result.setAssets(new Asset[] { Asset.withUrl("https://example.com/" + name + ".zip") });
+
+        return result;
+    }
+
+    @Before
+    public void before() throws IOException {
+        this.basePath = Paths.get("./target/asset-cache-test");
+        FileSystemUtils.deleteRecursively(this.basePath);
+        Files.createDirectories(this.basePath);
+
+        this.assetStore = new AssetStore(this.basePath);
+        this.assetCache = new AssetCache(this.assetStore);
+    }
+
+    @Test
+    public void installedAssetsAreNeverEvicted() throws IOException, InterruptedException {
+        ModDefinition installed = this.add("A", 1);
+        ModDefinition other = this.add("B", 2);
+        this.assetCache.setInstalled(entry -> entry.getName().equals("A"));
+
+        assertEquals(1, this.assetStore.evict(this.assetCache::isPinned, 0));
+
+        assertTrue(this.isStored(installed));
+        assertFalse(this.isStored(other));
+    }
+
+    @Test
+    public void leastRecentlyUsedAssetsAreEvictedFirst() throws IOException, InterruptedException {
+        ModDefinition first = this.add("A", 1);
+        ModDefinition second = this.add("B", 2);
+        ModDefinition third = this.add("C", 3);
+
+        Thread.sleep(10);
+        assertTrue(this.assetStore.verify(first, first.getAssets()[0]));
+
+        assertEquals(1, this.assetStore.evict(this.assetCache::isPinned, 2 * SIZE));
+
+        assertTrue(this.isStored(first));
+        assertFalse(this.isStored(second));
+        assertTrue(this.isStored(third));
+    }
+
+    @Test
+    public void pinnedAssetsSurviveEvictionUntilTheLastUnpin() throws IOException, InterruptedException {
+        ModDefinition pinned = this.add("A", 1);
+        ModDefinition other = this.add("B", 2);
+
+        // an install and a prefetch of the same definition overlap
+        this.assetCache.pin(pinned);
+        this.assetCache.pin(pinned);
+        assertEquals(1, this.assetStore.evict(this.assetCache::isPinned, 0));
+        assertTrue(this.isStored(pinned));
+        assertFalse(this.isStored(other));
+
+        this.assetCache.unpin(pinned);
+        assertEquals(0, this.assetStore.evict(this.assetCache::isPinned, 0));
+        assertTrue(this.isStored(pinned));
+
+        this.assetCache.unpin(pinned);
+        assertEquals(1, this.assetStore.evict(this.assetCache::isPinned, 0));
+        assertFalse(this.isStored(pinned));
+    }
+
+    private ModDefinition add(String name, int seed) throws IOException, InterruptedException {
+        ModDefinition result = createModDefinition(name);
+
+        byte[] content = new byte[SIZE];
+        content[0] = (byte) seed;
+        Path file = this.basePath.resolve("download.zip");
+        Files.write(file, content);
+        this.assetStore.add(result, result.getAssets()[0], file, HashUtils.sha256(content));
+
+        // keep the access times apart
+        Thread.sleep(10);
+
+        return result;
+    }
+
+    private boolean isStored(ModDefinition modDefinition) {
+        return this.assetStore.find(modDefinition, modDefinition.getAssets()[0]).isPresent();
+    }
+}
@@ -0,0 +1,119 @@
+package me.wulfmarius.modinstaller.repository;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+import org.junit.*;
+import org.springframework.util.FileSystemUtils;
+
+import me.wulfmarius.modinstaller.*;
+import me.wulfmarius.modinstaller.utils.HashUtils;
+
+public class AssetStoreTest {
+
+    private static final String URL = "https://example.com/releases/latest/download/mod.zip";
+
+    private final byte[] content = new byte[4096];
+
+    private Path basePath;
+    private AssetStore assetStore;
+
+    private static ModDefinition createModDefinition(String version, Asset asset) {
+        ModDefinition result = new ModDefinition();
+
+        result.setName("Mod");
+        result.setVersion(version);
+        result.setAssets(new Asset[] { asset });
+
+        return result;
+    }
+
+    @Before
+    public void before() throws IOException {
+        new Random(6).nextBytes(this.content);
+
+        this.basePath = Paths.get("./target/asset-store-test");
+        FileSystemUtils.deleteRecursively(this.basePath);
+        Files.createDirectories(this.basePath);
+
+        this.assetStore = new AssetStore(this.basePath);
+    }
+
+    @Test
+    public void changedModificationTimeIsVerifiedByContent() throws IOException {
+        ModDefinition modDefinition = createModDefinition("1.0.0", Asset.withUrl(URL));
+        Path objectPath = this.add(modDefinition, this.content);
+        Files.setLastModifiedTime(objectPath, FileTime.fromMillis(Files.getLastModifiedTime(objectPath).toMillis() - 60_000));
+
+        assertTrue(this.assetStore.verify(modDefinition, modDefinition.getAssets()[0]));
+        assertTrue(Files.exists(objectPath));
+    }
+
+    @Test
+    public void damagedObjectIsDroppedBeforeInstalling() throws IOException {
+        ModDefinition modDefinition = createModDefinition("1.0.0", Asset.withUrl(URL));
+        Path objectPath = this.add(modDefinition, this.content);
+
+        // same size and modification time, so only hashing notices
+        FileTime modified = Files.getLastModifiedTime(objectPath);
+        byte[] damaged = this.content.clone();
+        damaged[100] ^= 1;
+        Files.write(objectPath, damaged);
+        Files.setLastModifiedTime(objectPath, modified);
+
+        Asset asset = modDefinition.getAssets()[0];
+        assertTrue(this.assetStore.verify(modDefinition, asset));
+        assertFalse(this.assetStore.findVerified(modDefinition, asset).isPresent());
+        assertFalse(Files.exists(objectPath));
+        assertFalse(this.assetStore.find(modDefinition, asset).isPresent());
+    }
+
+    @Test
+    public void mismatchingDownloadIsRejected() throws IOException {
+        Asset asset = Asset.withUrl(URL);
+        asset.setSha256(HashUtils.sha256(new byte[] { 1 }));
+        ModDefinition modDefinition = createModDefinition("1.0.0", asset);
+
+        Path file = this.basePath.resolve("mod.zip");
+        Files.write(file, this.content);
+        try {
+            this.assetStore.add(modDefinition, asset, file, HashUtils.sha256(this.content));
+            fail("Expected a checksum mismatch.");
+        } catch (RepositoryException e) {
+            // expected
+        }
+
+        assertFalse(Files.exists(file));
+        assertFalse(this.assetStore.find(modDefinition, asset).isPresent());
+    }
+
+    @Test
+    public void storedAssetIsOnlyReusedByDeclaredDigest() throws IOException {
+        Path objectPath = this.add(createModDefinition("1.0.0", Asset.withUrl(URL)), this.content);
+
+        // the same URL may serve a different file for every release
+        Asset undeclared = Asset.withUrl(URL);
+        ModDefinition undeclaredDefinition = createModDefinition("1.1.0", undeclared);
+        assertFalse(this.assetStore.link(undeclaredDefinition, undeclared));
+        assertFalse(this.assetStore.find(undeclaredDefinition, undeclared).isPresent());
+
+        Asset declared = Asset.withUrl("https://example.com/mirror/mod.zip");
+        declared.setSha256(HashUtils.sha256(this.content).toUpperCase());
+        ModDefinition declaredDefinition = createModDefinition("1.2.0", declared);
+        assertTrue(this.assetStore.link(declaredDefinition, declared));
+        assertEquals(Optional.of(objectPath), this.assetStore.findVerified(declaredDefinition, declared));
+    }
+
+    private Path add(ModDefinition modDefinition, byte[] bytes) throws IOException {
+        Path file = this.basePath.resolve("download.zip");
+        Files.write(file, bytes);
+
+        String digest = HashUtils.sha256(bytes);
+        this.assetStore.add(modDefinition, modDefinition.getAssets()[0], file, digest);
+        return this.assetStore.getObjectPath(digest);
+    }
+}
@@ -0,0 +1,119 @@
+package me.wulfmarius.modinstaller.repository;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import me.wulfmarius.modinstaller.*;
+
+public class CatalogTest {
+
+    private final Catalog catalog = new Catalog();
+
+    private static ModDefinition createModDefinition(String name, String version, String author) {
+        ModDefinition result = new ModDefinition();
+
+        result.setName(name);
+        result.setVersion(version);
+        result.setAuthor(author);
+
+        return result;
+    }
+
+    private static Source createSource(String definition, ModDefinition... modDefinitions) {
+        Source result = new Source();
+
+        result.setDefinition(definition);
+        result.setModDefinitions(ModDefinitions.create(modDefinitions));
+
+        return result;
+    }
+
+    private static List<String> getVersions(List<ModDefinition> modDefinitions) {
+        List<String> result = new ArrayList<>();
+
+        for (ModDefinition eachModDefinition : modDefinitions) {
+            result.add(eachModDefinition.getVersion());
+        }
+
+        return result;
+    }
+
+    @Test
+    public void batchPublishesOneVersion() {
+        Source source1 = createSource("a", createModDefinition("A", "1.0.0", "a"));
+        Source source2 = createSource("b", createModDefinition("B", "1.0.0", "b"), createModDefinition("B", "1.1.0", "b"));
+        Source source3 = createSource("c", createModDefinition("A", "2.0.0", "c"));
+
+        this.catalog.update(Arrays.asList(source1, source2, source3));
+
+        assertEquals(1, this.catalog.getVersion());
+        assertEquals(Arrays.asList("2.0.0", "1.0.0"), getVersions(this.catalog.getModDefinitions("A")));
+        assertEquals(Arrays.asList("1.1.0", "1.0.0"), getVersions(this.catalog.getModDefinitions("B")));
+        assertEquals(3, this.catalog.getLatestVersions().size());
+        assertTrue(this.catalog.getLatestVersions().contains(createModDefinition("B", "1.1.0", "b")));
+
+        this.catalog.update(Collections.emptyList());
+        assertEquals(1, this.catalog.getVersion());
+    }
+
+    @Test
+    public void firstSourceProvidingVersionWins() {
+        Source source1 = createSource("a", createModDefinition("A", "1.0.0", "first"));
+        Source source2 = createSource("b", createModDefinition("A", "1.0.0", "second"), createModDefinition("A", "2.0.0", "second"));
+
+        this.catalog.update(source1);
+        this.catalog.update(source2);
+
+        assertEquals("first", this.catalog.getModDefinition("A", "1.0.0").get().getAuthor());
+        assertEquals("second", this.catalog.getModDefinition("A", "2.0.0").get().getAuthor());
+        assertEquals(Arrays.asList("2.0.0", "1.0.0"), getVersions(this.catalog.getModDefinitions("A")));
+
+        // once the first source drops the mod, the other source provides the version
+        source1.setModDefinitions(ModDefinitions.create(createModDefinition("B", "1.0.0", "first")));
+        this.catalog.update(source1);
+
+        assertEquals("second", this.catalog.getModDefinition("A", "1.0.0").get().getAuthor());
+        assertEquals(Arrays.asList("2.0.0", "1.0.0"), getVersions(this.catalog.getModDefinitions("A")));
+        assertEquals(Arrays.asList("1.0.0"), getVersions(this.catalog.getModDefinitions("B")));
+    }
+
+    @Test
+    public void nameAndVersionIndexFindsDefinitions() {
+        Source source = createSource("a", createModDefinition("A", "1.0.0", "a"), createModDefinition("A", "1.1.0", "a"));
+        this.catalog.update(source);
+
+        assertTrue(this.catalog.getModDefinition("A", "1.1.0").isPresent());
+        assertFalse(this.catalog.getModDefinition("A", "2.0.0").isPresent());
+        assertFalse(this.catalog.getModDefinition("B", "1.0.0").isPresent());
+        assertTrue(this.catalog.getModDefinitions("B").isEmpty());
+
+        ModDependency modDependency = new ModDependency();
+        modDependency.setName("A");
+        modDependency.setVersion("^1.0.0");
+        assertEquals(2, this.catalog.getMatching(modDependency).getSize());
+
+        source.setModDefinitions(new ModDefinitions());
+        this.catalog.update(source);
+
+        assertFalse(this.catalog.getModDefinition("A", "1.0.0").isPresent());
+        assertTrue(this.catalog.getModDefinitions("A").isEmpty());
+        assertTrue(this.catalog.getLatestVersions().isEmpty());
+    }
+
+    @Test
+    public void refreshedCopyReplacesItsSource() {
+        Source source = createSource("a", createModDefinition("A", "1.0.0", "a"));
+        this.catalog.update(source);
+
+        Source refreshed = Source.updated(source, createSource("a", createModDefinition("A", "2.0.0", "a")));
+        this.catalog.update(refreshed);
+
+        assertEquals(Arrays.asList("2.0.0"), getVersions(this.catalog.getModDefinitions("A")));
+        assertEquals(1, this.catalog.getLatestVersions().size());
+        assertEquals(Arrays.asList("1.0.0"), getVersions(source.getModDefinitionStream().collect(Collectors.toList())));
+    }
+}
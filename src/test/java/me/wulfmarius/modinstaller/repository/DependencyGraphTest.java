@@ -0,0 +1,71 @@
+package me.wulfmarius.modinstaller.repository;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import me.wulfmarius.modinstaller.*;
+
+public class DependencyGraphTest {
+
+    private final ModDefinition modA = createModDefinition("A", "C");
+    private final ModDefinition modB = createModDefinition("B", "A", "C");
+    private final ModDefinition modC = createModDefinition("C");
+    private final DependencyGraph dependencyGraph = DependencyGraph.create(Arrays.asList(this.modA, this.modB, this.modC));
+
+    private static void assertMatches(ModDefinitions actual, ModDefinition... expected) {
+        assertEquals("Actual: " + actual, expected.length, actual.getSize());
+
+        for (ModDefinition eachExpected : expected) {
+            assertTrue(actual.contains(eachExpected));
+        }
+    }
+
+    private static ModDefinition createModDefinition(String name, String... dependencyNames) {
+        ModDefinition result = new ModDefinition();
+
+        result.setName(name);
+        result.setVersion("1.0.0");
+
+        List<ModDependency> dependencies = new ArrayList<>();
+        for (String eachDependencyName : dependencyNames) {
+            ModDependency dependency = new ModDependency();
+            dependency.setName(eachDependencyName);
+            dependency.setVersion("^1.0.0");
+            dependencies.add(dependency);
+        }
+        result.setDependencies(dependencies.toArray(new ModDependency[0]));
+
+        return result;
+    }
+
+    @Test
+    public void dependenciesAreLatestVersionsOfRequiredMods() {
+        assertMatches(this.dependencyGraph.getDependencies(this.modB), this.modA, this.modC);
+        assertMatches(this.dependencyGraph.getDependencies(this.modA), this.modC);
+        assertMatches(this.dependencyGraph.getDependencies(this.modC));
+
+        // dependencies without a known latest version are skipped
+        assertMatches(this.dependencyGraph.getDependencies(createModDefinition("D", "A", "E")), this.modA);
+    }
+
+    @Test
+    public void dependentsAreTheReverseEdges() {
+        assertMatches(this.dependencyGraph.getDependents("C"), this.modA, this.modB);
+        assertMatches(this.dependencyGraph.getDependents("A"), this.modB);
+        assertMatches(this.dependencyGraph.getDependents("B"));
+
+        // callers get a copy they can change
+        this.dependencyGraph.getDependents("C").remove(this.modA);
+        assertMatches(this.dependencyGraph.getDependents("C"), this.modA, this.modB);
+    }
+
+    @Test
+    public void requiredNamesFollowDirectDependencies() {
+        assertEquals(new HashSet<>(Arrays.asList("C")), this.dependencyGraph.getRequiredNames(Arrays.asList("A")));
+        assertEquals(new HashSet<>(Arrays.asList("A", "C")), this.dependencyGraph.getRequiredNames(Arrays.asList("B", "X")));
+        assertTrue(this.dependencyGraph.getRequiredNames(Arrays.asList("C")).isEmpty());
+    }
+}
@@ -0,0 +1,155 @@
+package me.wulfmarius.modinstaller.repository;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+import org.springframework.util.FileSystemUtils;
+
+import com.sun.net.httpserver.HttpServer;
+
+import me.wulfmarius.modinstaller.*;
+
+public class DownloadSchedulerTest {
+
+    private final byte[] content = new byte[300 * 1024];
+    private final CountDownLatch requested = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final RecordingProgressListener progressListener = new RecordingProgressListener();
+
+    private HttpServer httpServer;
+    private Repository repository;
+
+    @After
+    public void after() {
+        this.released.countDown();
+        this.httpServer.stop(0);
+    }
+
+    @Before
+    public void before() throws IOException {
+        new Random(5).nextBytes(this.content);
+
+        Path basePath = Paths.get("./target/download-scheduler-test");
+        FileSystemUtils.deleteRecursively(basePath);
+        this.repository = new Repository(basePath);
+
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.httpServer.createContext("/assets", exchange -> {
+            exchange.sendResponseHeaders(200, this.content.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(this.content);
+            }
+        });
+        this.httpServer.createContext("/hanging", exchange -> {
+            exchange.sendResponseHeaders(200, this.content.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(this.content, 0, 1024);
+                outputStream.flush();
+                this.requested.countDown();
+                this.released.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException | IOException e) {
+                // the client went away
+            }
+        });
+        this.httpServer.setExecutor(Executors.newCachedThreadPool());
+        this.httpServer.start();
+    }
+
+    @Test
+    public void closeAbortsRunningDownloads() throws InterruptedException {
+        ModDefinition modDefinition = this.createModDefinition("A", "/hanging/a.zip");
+
+        DownloadScheduler downloadScheduler = new DownloadScheduler(this.repository, new ProgressListeners(), 2);
+        downloadScheduler.schedule(Collections.singletonList(modDefinition));
+        assertTrue(this.requested.await(10, TimeUnit.SECONDS));
+
+        long started = System.nanoTime();
+        downloadScheduler.close();
+        try {
+            downloadScheduler.await(modDefinition);
+            fail("Expected the aborted download to fail.");
+        } catch (RuntimeException e) {
+            // expected
+        }
+
+        // without aborting the socket, only the read timeout or the stall detection would end the download
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started) < 5);
+    }
+
+    @Test
+    public void downloadsTheAssetsOfAllDefinitions() throws IOException {
+        ModDefinition modDefinition1 = this.createModDefinition("A", "/assets/a1.zip", "/assets/a2.zip");
+        ModDefinition modDefinition2 = this.createModDefinition("B", "/assets/b.zip");
+
+        ProgressListeners progressListeners = new ProgressListeners();
+        progressListeners.addListener(this.progressListener);
+        try (DownloadScheduler downloadScheduler = new DownloadScheduler(this.repository, progressListeners, 2)) {
+            downloadScheduler.schedule(Arrays.asList(modDefinition1, modDefinition2));
+
+            downloadScheduler.await(modDefinition1);
+            downloadScheduler.await(modDefinition2);
+        }
+
+        for (ModDefinition eachModDefinition : Arrays.asList(modDefinition1, modDefinition2)) {
+            for (Asset eachAsset : eachModDefinition.getAssets()) {
+                assertArrayEquals(this.content, Files.readAllBytes(this.repository.getAssetPath(eachModDefinition, eachAsset)));
+            }
+        }
+
+        // progress is reported in KiB
+        assertEquals(3 * 300, this.progressListener.total);
+    }
+
+    private ModDefinition createModDefinition(String name, String... paths) {
+        ModDefinition result = new ModDefinition();
+
+        result.setName(name);
+        result.setVersion("1.0.0");
+        result.setAssets(Arrays.stream(paths)
+                .map(path -> Asset.withUrl("http://localhost:" + this.httpServer.getAddress().getPort() + path))
+                .toArray(Asset[]::new));
+
+        return result;
+    }
+
+    private static class RecordingProgressListener implements ProgressListener {
+
+        private volatile int total;
+
+        @Override
+        public void finished(String message) {
+            // ignore
+        }
+
+        @Override
+        public void started(String name) {
+            // ignore
+        }
+
+        @Override
+        public void stepDetail(String detail) {
+            // ignore
+        }
+
+        @Override
+        public void stepError(String error) {
+            // ignore
+        }
+
+        @Override
+        public void stepProgress(int completed, int stepTotal) {
+            this.total = Math.max(this.total, stepTotal);
+        }
+
+        @Override
+        public void stepStarted(String step, StepType stepType) {
+            // ignore
+        }
+    }
+}
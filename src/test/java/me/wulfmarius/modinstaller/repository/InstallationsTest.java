@@ -0,0 +1,89 @@
+package me.wulfmarius.modinstaller.repository;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import me.wulfmarius.modinstaller.ModDefinition;
+import me.wulfmarius.modinstaller.utils.JsonUtils;
+
+public class InstallationsTest {
+
+    private static Installation createInstallation(String name, String version, String... assets) {
+        Installation result = new Installation();
+
+        result.setSourceDefinition("source");
+        result.setName(name);
+        result.setVersion(version);
+        result.setAssets(Arrays.asList(assets));
+
+        return result;
+    }
+
+    private static ModDefinition createModDefinition(String name, String version) {
+        ModDefinition result = new ModDefinition();
+
+        result.setName(name);
+        result.setVersion(version);
+
+        return result;
+    }
+
+    @Test
+    public void assetReferencesAreCounted() {
+        Installation installation1 = createInstallation("A", "1.0.0", "a.dll", "shared.dll");
+        Installation installation2 = createInstallation("B", "1.0.0", "shared.dll");
+        Installations installations = Installations.create(installation1, installation2);
+
+        assertTrue(installations.isAssetReferenced("shared.dll"));
+        assertEquals(2, installations.getInstallationsWithAsset("shared.dll").getSize());
+
+        installations.remove(installation1);
+        assertFalse(installations.isAssetReferenced("a.dll"));
+        assertTrue(installations.isAssetReferenced("shared.dll"));
+        assertEquals(1, installations.getInstallationsWithAsset("shared.dll").getSize());
+
+        installations.remove(createModDefinition("B", "1.0.0"));
+        assertFalse(installations.isAssetReferenced("shared.dll"));
+        assertTrue(installations.isEmpty());
+        assertTrue(installations.getNames().isEmpty());
+    }
+
+    @Test
+    public void installationsAreIndexedByName() {
+        Installations installations = Installations.create(createInstallation("A", "1.0.0"), createInstallation("B", "2.0.0"));
+
+        assertTrue(installations.contains(createModDefinition("A", "1.0.0")));
+        assertFalse(installations.contains(createModDefinition("A", "1.1.0")));
+        assertEquals(1, installations.getInstallations("B").getSize());
+        assertTrue(installations.getInstallations("C").isEmpty());
+        assertEquals(Arrays.asList("A", "B"), Arrays.asList(installations.getNames().toArray()));
+    }
+
+    @Test
+    public void jsonKeepsItsLayout() throws IOException {
+        Installations installations = Installations.create(createInstallation("A", "1.0.0", "a.dll", "shared.dll"));
+
+        String json = new String(JsonUtils.serializeLine(installations), StandardCharsets.UTF_8).trim();
+        assertEquals("{\"installations\":[{\"sourceDefinition\":\"source\",\"name\":\"A\",\"version\":\"1.0.0\","
+                + "\"assets\":[\"a.dll\",\"shared.dll\"]}]}", json);
+
+        Installations restored = JsonUtils.deserialize(json, Installations.class);
+        assertEquals(1, restored.getSize());
+        assertTrue(restored.contains(createModDefinition("A", "1.0.0")));
+        assertTrue(restored.isAssetReferenced("shared.dll"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void unmodifiableInstallationsRejectChanges() {
+        Installations installations = Installations.create(createInstallation("A", "1.0.0"));
+        Installations unmodifiable = Installations.unmodifiable(installations);
+
+        assertTrue(unmodifiable.contains(createModDefinition("A", "1.0.0")));
+        unmodifiable.addInstallation(createInstallation("B", "1.0.0"));
+    }
+}
@@ -0,0 +1,120 @@
+package me.wulfmarius.modinstaller.repository;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.file.*;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+import org.springframework.util.FileSystemUtils;
+
+import com.sun.net.httpserver.HttpServer;
+
+import me.wulfmarius.modinstaller.*;
+import me.wulfmarius.modinstaller.rest.*;
+
+public class OfflineModeTest {
+
+    private final byte[] content = new byte[16 * 1024];
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private Path basePath;
+    private HttpServer httpServer;
+    private Repository repository;
+
+    @After
+    public void after() {
+        RestClient.getInstance().setOffline(false);
+        this.httpServer.stop(0);
+    }
+
+    @Before
+    public void before() throws IOException {
+        new Random(14).nextBytes(this.content);
+
+        this.basePath = Paths.get("./target/offline-mode-test");
+        FileSystemUtils.deleteRecursively(this.basePath);
+        this.repository = new Repository(this.basePath);
+
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.httpServer.createContext("/", exchange -> {
+            this.requests.incrementAndGet();
+            exchange.sendResponseHeaders(200, this.content.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(this.content);
+            }
+        });
+        this.httpServer.start();
+    }
+
+    @Test
+    public void completedDownloadIsUsedOffline() throws IOException {
+        ModDefinition modDefinition = this.createModDefinition();
+        Asset asset = modDefinition.getAssets()[0];
+
+        // the download finished, but moving it into the store did not
+        Path downloadPath = new AssetStore(this.basePath).getDownloadPath(modDefinition, asset);
+        Files.createDirectories(downloadPath.getParent());
+        Files.write(downloadPath, this.content);
+        RestClient.getInstance().setOffline(true);
+
+        assertArrayEquals(this.content, Files.readAllBytes(this.repository.getAssetPath(modDefinition, asset)));
+        assertEquals(0, this.requests.get());
+    }
+
+    @Test
+    public void missingAssetFailsOffline() {
+        ModDefinition modDefinition = this.createModDefinition();
+        RestClient.getInstance().setOffline(true);
+
+        try {
+            this.repository.getAssetPath(modDefinition, modDefinition.getAssets()[0]);
+            fail("Expected the download to be refused.");
+        } catch (RepositoryException e) {
+            assertTrue(e.getMessage().contains(modDefinition.getAssets()[0].getUrl()));
+        }
+
+        assertEquals(0, this.requests.get());
+    }
+
+    @Test(expected = OfflineException.class)
+    public void requestsAreSkippedOffline() {
+        RestClient.getInstance().setOffline(true);
+
+        try {
+            RestClient.getInstance().fetch(this.getUrl("/source.json"), null, String.class, null);
+        } finally {
+            assertEquals(0, this.requests.get());
+        }
+    }
+
+    @Test
+    public void storedAssetIsUsedOffline() throws IOException {
+        ModDefinition modDefinition = this.createModDefinition();
+        Asset asset = modDefinition.getAssets()[0];
+        this.repository.downloadAsset(modDefinition, asset, new ProgressListeners());
+        assertEquals(1, this.requests.get());
+
+        RestClient.getInstance().setOffline(true);
+
+        assertArrayEquals(this.content, Files.readAllBytes(this.repository.getAssetPath(modDefinition, asset)));
+        assertEquals(1, this.requests.get());
+    }
+
+    private ModDefinition createModDefinition() {
+        ModDefinition result = new ModDefinition();
+
+        result.setName("Mod");
+        result.setVersion("1.0.0");
+        result.setAssets(new Asset[] { Asset.withUrl(this.getUrl("/mod.zip")) });
+
+        return result;
+    }
+
+    private String getUrl(String path) {
+        return "http://localhost:" + this.httpServer.getAddress().getPort() + path;
+    }
+}
@@ -0,0 +1,123 @@
+package me.wulfmarius.modinstaller.repository;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.FileSystemUtils;
+
+import com.sun.net.httpserver.HttpServer;
+
+import me.wulfmarius.modinstaller.ProgressListeners;
+import me.wulfmarius.modinstaller.rest.RestClient;
+import me.wulfmarius.modinstaller.utils.HashUtils;
+
+public class PartialDownloadTest {
+
+    private static final String ETAG = "\"v1\"";
+
+    private final byte[] content = new byte[256 * 1024];
+    private final List<String> ranges = Collections.synchronizedList(new ArrayList<>());
+
+    private HttpServer httpServer;
+    private volatile String etag = ETAG;
+    private Path target;
+
+    @After
+    public void after() {
+        this.httpServer.stop(0);
+    }
+
+    @Before
+    public void before() throws IOException {
+        new Random(4).nextBytes(this.content);
+
+        Path basePath = Paths.get("./target/partial-download-test");
+        FileSystemUtils.deleteRecursively(basePath);
+        Files.createDirectories(basePath);
+        this.target = basePath.resolve("asset.zip");
+
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.httpServer.createContext("/asset.zip", exchange -> {
+            String range = exchange.getRequestHeaders().getFirst(HttpHeaders.RANGE);
+            String ifRange = exchange.getRequestHeaders().getFirst(HttpHeaders.IF_RANGE);
+            this.ranges.add(range);
+
+            exchange.getResponseHeaders().set(HttpHeaders.ETAG, this.etag);
+            int offset = 0;
+            if (range != null && this.etag.equals(ifRange)) {
+                offset = Integer.parseInt(range.replaceAll("bytes=(\\d+)-", "$1"));
+                exchange.getResponseHeaders()
+                        .set(HttpHeaders.CONTENT_RANGE, "bytes " + offset + "-" + (this.content.length - 1) + "/" + this.content.length);
+                exchange.sendResponseHeaders(206, this.content.length - offset);
+            } else {
+                exchange.sendResponseHeaders(200, this.content.length);
+            }
+
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(this.content, offset, this.content.length - offset);
+            }
+        });
+        this.httpServer.start();
+    }
+
+    @Test
+    public void changedFileRestartsTheDownload() throws IOException {
+        this.writePart(ETAG, new byte[70000]);
+        this.etag = "\"v2\"";
+
+        String digest = this.download();
+
+        assertEquals(Collections.singletonList("bytes=70000-"), this.ranges);
+        assertArrayEquals(this.content, Files.readAllBytes(this.target));
+        assertEquals(HashUtils.sha256(this.content), digest);
+    }
+
+    @Test
+    public void partWithoutValidatorIsNotResumed() throws IOException {
+        this.writePart(null, Arrays.copyOf(this.content, 70000));
+
+        this.download();
+
+        assertEquals(Collections.singletonList(null), this.ranges);
+        assertArrayEquals(this.content, Files.readAllBytes(this.target));
+    }
+
+    @Test
+    public void truncatedPartIsResumedAtItsLength() throws IOException {
+        // the last write before the interruption did not make it to the disk
+        this.writePart(ETAG, Arrays.copyOf(this.content, 70000));
+
+        String digest = this.download();
+
+        assertEquals(Collections.singletonList("bytes=70000-"), this.ranges);
+        assertArrayEquals(this.content, Files.readAllBytes(this.target));
+        assertEquals(HashUtils.sha256(this.content), digest);
+
+        PartialDownload partialDownload = new PartialDownload(this.target);
+        assertFalse(Files.exists(partialDownload.getPartFile()));
+        assertNull(partialDownload.getValidator());
+    }
+
+    private String download() {
+        String url = "http://localhost:" + this.httpServer.getAddress().getPort() + "/asset.zip";
+        return RestClient.getInstance().downloadAsset(url, this.target, new ProgressListeners());
+    }
+
+    private void writePart(String validator, byte[] part) throws IOException {
+        PartialDownload partialDownload = new PartialDownload(this.target);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (validator != null) {
+            headers.setETag(validator);
+        }
+        partialDownload.start(headers);
+
+        Files.write(partialDownload.getPartFile(), part);
+    }
+}
@@ -0,0 +1,144 @@
+package me.wulfmarius.modinstaller.repository;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.*;
+import org.springframework.util.FileSystemUtils;
+
+import me.wulfmarius.modinstaller.ProgressListener;
+import me.wulfmarius.modinstaller.repository.source.FileSourceFactory;
+import me.wulfmarius.modinstaller.utils.JsonUtils;
+
+public class RepositoryRefreshTest {
+
+    private static final String[] MODS = { "a", "b", "c", "d", "e" };
+
+    private final RecordingProgressListener progressListener = new RecordingProgressListener();
+
+    private Path basePath;
+    private Path sourceDirectory;
+
+    @Before
+    public void before() throws IOException {
+        this.basePath = Paths.get("./target/repository-refresh-test");
+        FileSystemUtils.deleteRecursively(this.basePath);
+
+        this.sourceDirectory = this.basePath.resolve("sources");
+        Files.createDirectories(this.sourceDirectory);
+
+        Sources sources = new Sources();
+        for (String eachMod : MODS) {
+            Path sourcePath = this.getSourcePath(eachMod);
+            Files.copy(Paths.get("./src/test/resources/mod-" + eachMod + ".json"), sourcePath);
+            sources.addSource(new FileSourceFactory().create(sourcePath.toString(), Collections.emptyMap()));
+        }
+
+        Path repositoryPath = this.basePath.resolve("repository");
+        Files.createDirectories(repositoryPath);
+        JsonUtils.serialize(repositoryPath.resolve("sources.json"), sources);
+    }
+
+    @Test
+    public void failingSourceDoesNotStopTheOthers() throws IOException {
+        Repository repository = this.createRepository();
+        Files.delete(this.getSourcePath("c"));
+        this.addRelease("d", "D", "3.0.0");
+
+        repository.refreshSources();
+
+        assertEquals(MODS.length, this.progressListener.refreshed.size());
+        assertEquals(1, this.progressListener.errors.size());
+        assertTrue(repository.getModDefinition("D", "3.0.0").isPresent());
+        assertTrue(repository.getModDefinition("C", "1.0.0").isPresent());
+    }
+
+    @Test
+    public void refreshMergesAllSources() throws IOException {
+        Repository repository = this.createRepository();
+        repository.setRefreshThreads(3);
+        this.addRelease("b", "B", "3.0.0");
+        this.addRelease("e", "E", "3.0.0");
+
+        repository.refreshSources();
+
+        // sources are merged in the order their refreshes complete
+        Collections.sort(this.progressListener.refreshed);
+        assertEquals(Arrays.asList(MODS), this.progressListener.refreshed);
+        assertEquals(MODS.length, this.progressListener.completed);
+        assertTrue(this.progressListener.errors.isEmpty());
+        assertTrue(this.progressListener.message.contains("B"));
+        assertTrue(this.progressListener.message.contains("E"));
+        assertTrue(repository.getModDefinition("B", "3.0.0").isPresent());
+        assertTrue(repository.getModDefinition("E", "3.0.0").isPresent());
+        assertTrue(repository.getLatestVersions().stream().anyMatch(modDefinition -> "3.0.0".equals(modDefinition.getVersion())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void refreshThreadsMustBePositive() {
+        this.createRepository().setRefreshThreads(0);
+    }
+
+    private void addRelease(String mod, String name, String version) throws IOException {
+        Path sourcePath = this.getSourcePath(mod);
+        String content = new String(Files.readAllBytes(sourcePath), StandardCharsets.UTF_8);
+        String release = "{\"name\": \"" + name + "\", \"version\": \"" + version + "\"},";
+        content = content.replaceFirst("\"releases\": \\[", "\"releases\": [" + release);
+        Files.write(sourcePath, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Repository createRepository() {
+        Repository result = new Repository(this.basePath.resolve("repository"));
+        result.initialize();
+        result.addProgressListener(this.progressListener);
+        return result;
+    }
+
+    private Path getSourcePath(String mod) {
+        return this.sourceDirectory.resolve("mod-" + mod + ".json");
+    }
+
+    private static class RecordingProgressListener implements ProgressListener {
+
+        private final List<String> refreshed = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private int completed;
+        private String message;
+
+        @Override
+        public void finished(String finishedMessage) {
+            this.message = finishedMessage;
+        }
+
+        @Override
+        public void started(String name) {
+            // ignore
+        }
+
+        @Override
+        public void stepDetail(String detail) {
+            // ignore
+        }
+
+        @Override
+        public void stepError(String error) {
+            this.errors.add(error);
+        }
+
+        @Override
+        public void stepProgress(int stepCompleted, int total) {
+            this.completed = stepCompleted;
+        }
+
+        @Override
+        public void stepStarted(String step, StepType stepType) {
+            if (stepType == StepType.REFRESH) {
+                this.refreshed.add(step.replaceAll(".*mod-(.)\\.json", "$1"));
+            }
+        }
+    }
+}
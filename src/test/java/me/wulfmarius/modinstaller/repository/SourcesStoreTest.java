@@ -0,0 +1,172 @@
+package me.wulfmarius.modinstaller.repository;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import org.junit.*;
+import org.springframework.util.FileSystemUtils;
+
+import me.wulfmarius.modinstaller.utils.JsonUtils;
+
+public class SourcesStoreTest {
+
+    private Path basePath;
+    private Sources sources;
+
+    private static void assertDescriptions(Sources sources, String... expected) {
+        assertEquals(Arrays.asList(expected), sources.stream().map(Source::getDescription).collect(Collectors.toList()));
+    }
+
+    private static Source createSource(String definition) {
+        Source result = new Source();
+
+        result.setDefinition(definition);
+        result.setName(definition.toUpperCase());
+        result.setDescription("initial");
+
+        return result;
+    }
+
+    @Before
+    public void before() throws IOException {
+        this.basePath = Paths.get("./target/sources-store-test");
+        FileSystemUtils.deleteRecursively(this.basePath);
+        Files.createDirectories(this.basePath);
+
+        this.sources = new Sources();
+        this.sources.addSource(createSource("a"));
+        this.sources.addSource(createSource("b"));
+    }
+
+    @Test
+    public void binaryCacheIsPreferredOverTheJson() throws IOException {
+        new SourcesStore(this.basePath).write(this.sources, this.sources.getSources());
+        assertTrue(Files.exists(this.getBinaryPath()));
+
+        // an older sources.json can only be the one the binary cache was written from
+        this.change(0, "json only");
+        this.writeJson(this.sources, -60_000);
+
+        assertDescriptions(this.read(), "initial", "initial");
+    }
+
+    @Test
+    public void binaryCacheIsSkippedWhenDisabled() throws IOException {
+        SourcesStore sourcesStore = new SourcesStore(this.basePath);
+        sourcesStore.setBinaryCache(false);
+        sourcesStore.write(this.sources, this.sources.getSources());
+
+        assertFalse(Files.exists(this.getBinaryPath()));
+        assertDescriptions(sourcesStore.read().get(), "initial", "initial");
+    }
+
+    @Test
+    public void binaryCacheWithUnknownHeaderIsReplaced() throws IOException {
+        new SourcesStore(this.basePath).write(this.sources, this.sources.getSources());
+        Files.write(this.getBinaryPath(), new byte[] { 0, 0, 0, 1, 0, 0, 0, 1 });
+        Files.setLastModifiedTime(this.getSourcesPath(), FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+
+        assertDescriptions(this.read(), "initial", "initial");
+        assertTrue(Files.size(this.getBinaryPath()) > 8);
+    }
+
+    @Test
+    public void newerJsonReplacesTheBinaryCache() throws IOException {
+        new SourcesStore(this.basePath).write(this.sources, this.sources.getSources());
+
+        // restored or edited by hand
+        this.change(0, "edited");
+        this.writeJson(this.sources, 60_000);
+
+        assertDescriptions(this.read(), "edited", "initial");
+
+        // the rewritten binary cache now holds the edited sources
+        this.change(0, "json only");
+        this.writeJson(this.sources, -60_000);
+        assertDescriptions(this.read(), "edited", "initial");
+    }
+
+    @Test
+    public void changesAreAppendedToTheJournal() throws IOException {
+        SourcesStore sourcesStore = new SourcesStore(this.basePath);
+        sourcesStore.write(this.sources, this.sources.getSources());
+        byte[] compacted = Files.readAllBytes(this.getSourcesPath());
+        assertFalse(Files.exists(this.getJournalPath()));
+
+        Source changed = this.change(1, "changed");
+        sourcesStore.write(this.sources, Collections.singletonList(changed));
+
+        // only the changed source is written, the compacted file stays as it was
+        assertArrayEquals(compacted, Files.readAllBytes(this.getSourcesPath()));
+        assertEquals(1, Files.readAllLines(this.getJournalPath(), StandardCharsets.UTF_8).size());
+        assertDescriptions(this.read(), "initial", "changed");
+    }
+
+    @Test
+    public void journalIsCompactedAtItsLimit() throws IOException {
+        SourcesStore sourcesStore = new SourcesStore(this.basePath);
+        sourcesStore.setJournalLimit(2);
+        sourcesStore.write(this.sources, this.sources.getSources());
+
+        sourcesStore.write(this.sources, Collections.singletonList(this.change(0, "first")));
+        sourcesStore.write(this.sources, Collections.singletonList(this.change(1, "second")));
+        assertEquals(2, Files.readAllLines(this.getJournalPath(), StandardCharsets.UTF_8).size());
+
+        sourcesStore.write(this.sources, Collections.singletonList(this.change(0, "third")));
+        assertFalse(Files.exists(this.getJournalPath()));
+        assertDescriptions(this.read(), "third", "second");
+    }
+
+    @Test
+    public void tornLastEntryIsIgnored() throws IOException {
+        SourcesStore sourcesStore = new SourcesStore(this.basePath);
+        sourcesStore.write(this.sources, this.sources.getSources());
+        sourcesStore.write(this.sources, Collections.singletonList(this.change(0, "written")));
+        Files.write(this.getJournalPath(), "{\"source\":{\"definition\":\"b\",\"descr".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        SourcesStore restartedStore = new SourcesStore(this.basePath);
+        Sources restored = restartedStore.read().get();
+        assertDescriptions(restored, "written", "initial");
+
+        // appending behind the torn entry would hide the new entry from the next read
+        restored.getSources().get(1).setDescription("after restart");
+        restartedStore.write(restored, Collections.singletonList(restored.getSources().get(1)));
+        assertFalse(Files.exists(this.getJournalPath()));
+        assertDescriptions(this.read(), "written", "after restart");
+    }
+
+    private Source change(int index, String description) {
+        Source result = this.sources.getSources().get(index);
+        result.setDescription(description);
+        return result;
+    }
+
+    private Path getBinaryPath() {
+        return this.basePath.resolve("sources.bin");
+    }
+
+    private Path getJournalPath() {
+        return this.basePath.resolve("sources-journal.json");
+    }
+
+    private Path getSourcesPath() {
+        return this.basePath.resolve("sources.json");
+    }
+
+    private Sources read() {
+        return new SourcesStore(this.basePath).read().get();
+    }
+
+    private void writeJson(Sources json, long offset) throws IOException {
+        JsonUtils.serialize(this.getSourcesPath(), json);
+        FileTime binaryModified = Files.getLastModifiedTime(this.getBinaryPath());
+        Files.setLastModifiedTime(this.getSourcesPath(), FileTime.fromMillis(binaryModified.toMillis() + offset));
+    }
+}
@@ -0,0 +1,106 @@
+package me.wulfmarius.modinstaller.repository;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+import org.junit.*;
+import org.springframework.util.FileSystemUtils;
+
+import me.wulfmarius.modinstaller.ModDefinition;
+import me.wulfmarius.modinstaller.utils.JsonUtils;
+
+public class TextStoreTest {
+
+    private Path path;
+
+    @Before
+    public void before() throws IOException {
+        Path basePath = Paths.get("./target/text-store-test");
+        FileSystemUtils.deleteRecursively(basePath);
+        Files.createDirectories(basePath);
+
+        this.path = basePath.resolve("texts.dat");
+    }
+
+    @Test
+    public void cacheKeepsRecentlyReadTexts() throws IOException {
+        TextStore textStore = new TextStore(this.path);
+        textStore.setCacheSize(1);
+        TextStore.Reference first = textStore.add("first");
+        TextStore.Reference second = textStore.add("second");
+
+        assertEquals("first", first.get());
+        this.overwrite("FIRST");
+        assertEquals("first", first.get());
+        assertEquals("FIRST", first.getUncached());
+
+        assertEquals("second", second.get());
+        assertEquals("FIRST", first.get());
+    }
+
+    @Test
+    public void compactionDropsTextsNoLongerUsed() throws IOException {
+        TextStore textStore = new TextStore(this.path);
+        textStore.add("removed description");
+        textStore.add("another removed description");
+        textStore.add("kept");
+        long size = Files.size(this.path);
+
+        textStore = new TextStore(this.path);
+        TextStore.Reference kept = textStore.add("kept");
+        textStore.compact();
+
+        assertTrue(Files.size(this.path) < size);
+        assertEquals("kept", kept.get());
+        assertEquals("kept", new TextStore(this.path).add("kept").getUncached());
+    }
+
+    @Test
+    public void persistedDefinitionsOnlyReferToTexts() throws IOException {
+        ModDefinition modDefinition = new ModDefinition();
+        modDefinition.setName("A");
+        modDefinition.setVersion("1.0.0");
+        modDefinition.setDescription("the description");
+        modDefinition.setChanges("the changes");
+        assertTrue(modDefinition.externalizeTexts(new TextStore(this.path)::add));
+
+        String json = new String(JsonUtils.serializeLine(modDefinition), StandardCharsets.UTF_8);
+        assertFalse(json.contains("the description"));
+        assertFalse(json.contains("the changes"));
+
+        ModDefinition restored = JsonUtils.deserialize(json, ModDefinition.class);
+        assertTrue(restored.resolveTexts(new TextStore(this.path)::find));
+        assertEquals("the description", restored.getDescription());
+        assertEquals("the changes", restored.getChanges());
+
+        Files.delete(this.path);
+        assertFalse(JsonUtils.deserialize(json, ModDefinition.class).resolveTexts(new TextStore(this.path)::find));
+    }
+
+    @Test
+    public void textsAreKeptAcrossRuns() throws IOException {
+        TextStore textStore = new TextStore(this.path);
+        TextStore.Reference reference = textStore.add("description");
+        assertSame(reference, textStore.add("description"));
+        long size = Files.size(this.path);
+
+        TextStore restarted = new TextStore(this.path);
+        TextStore.Reference restartedReference = restarted.add("description");
+
+        assertEquals(size, Files.size(this.path));
+        assertEquals("description", restartedReference.get());
+    }
+
+    private void overwrite(String text) throws IOException {
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            // the first record starts after the file and record headers
+            channel.write(ByteBuffer.wrap(bytes), 4 + 32 + 4);
+        }
+    }
+}
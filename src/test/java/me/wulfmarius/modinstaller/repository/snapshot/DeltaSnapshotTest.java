@@ -0,0 +1,144 @@
+package me.wulfmarius.modinstaller.repository.snapshot;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.FileSystemUtils;
+
+import me.wulfmarius.modinstaller.ModDefinition;
+import me.wulfmarius.modinstaller.repository.*;
+import me.wulfmarius.modinstaller.repository.source.FileSourceFactory;
+
+public class DeltaSnapshotTest {
+
+    private static final String[] MODS = { "a", "b", "c", "d", "e" };
+
+    private Path basePath;
+    private Path snapshotDirectory;
+    private Sources published;
+    private CountingSnapshotProvider snapshotProvider;
+
+    private static Source createSource(String mod) {
+        Source result = new FileSourceFactory().create("./src/test/resources/mod-" + mod + ".json", Collections.emptyMap());
+        result.getParameters().put(SourceFactory.PARAMETER_ETAG, "1");
+        return result;
+    }
+
+    @Before
+    public void before() throws IOException {
+        this.basePath = Paths.get("./target/snapshot-test");
+        FileSystemUtils.deleteRecursively(this.basePath);
+
+        this.published = new Sources();
+        for (String eachMod : MODS) {
+            this.published.addSource(createSource(eachMod));
+        }
+
+        this.snapshotDirectory = this.basePath.resolve("server");
+        SnapshotPublisher.publish(this.published, this.snapshotDirectory);
+
+        this.snapshotProvider = new CountingSnapshotProvider(this.snapshotDirectory);
+    }
+
+    @Test
+    public void changedSourceIsFetchedAlone() throws IOException {
+        this.createRepository().refreshSnapshot();
+
+        Source source = this.published.getSources().get(1);
+        ModDefinition modDefinition = new ModDefinition();
+        modDefinition.setName("B");
+        modDefinition.setVersion("3.0.0");
+        modDefinition.setLastUpdated(new Date());
+        source.getModDefinitions().addModDefinition(modDefinition);
+        source.getParameters().put(SourceFactory.PARAMETER_ETAG, "2");
+        SnapshotPublisher.publish(this.published, this.snapshotDirectory);
+
+        // a new repository must pick up the state of the previous refresh
+        Repository repository = this.createRepository();
+        repository.refreshSnapshot();
+
+        assertEquals(1, this.snapshotProvider.snapshots);
+        assertEquals(1, this.snapshotProvider.sources);
+        assertTrue(repository.getModDefinition("B", "3.0.0").isPresent());
+    }
+
+    @Test
+    public void initialRefreshFetchesFullSnapshot() {
+        Repository repository = this.createRepository();
+        repository.refreshSnapshot();
+
+        assertEquals(1, this.snapshotProvider.snapshots);
+        assertEquals(0, this.snapshotProvider.sources);
+        assertTrue(repository.getModDefinition("A", "1.0.0").isPresent());
+    }
+
+    @Test
+    public void unchangedManifestFetchesNothing() {
+        Repository repository = this.createRepository();
+        repository.refreshSnapshot();
+        repository.refreshSnapshot();
+
+        assertEquals(2, this.snapshotProvider.manifests);
+        assertEquals(1, this.snapshotProvider.snapshots);
+        assertEquals(0, this.snapshotProvider.sources);
+    }
+
+    @Test
+    public void withoutManifestOnlyFullSnapshotIsFetched() {
+        this.snapshotProvider.deltaSupported = false;
+
+        Repository repository = this.createRepository();
+        repository.refreshSnapshot();
+
+        assertEquals(0, this.snapshotProvider.manifests);
+        assertEquals(1, this.snapshotProvider.snapshots);
+        assertTrue(repository.getModDefinition("A", "1.0.0").isPresent());
+    }
+
+    private Repository createRepository() {
+        Repository result = new Repository(this.basePath.resolve("repository"));
+        result.initialize();
+        result.setSnapshotProvider(this.snapshotProvider);
+        return result;
+    }
+
+    private static class CountingSnapshotProvider extends FileSnapshotProvider {
+
+        private int manifests;
+        private int snapshots;
+        private int sources;
+        private boolean deltaSupported = true;
+
+        public CountingSnapshotProvider(Path directory) {
+            super(directory);
+        }
+
+        @Override
+        public ResponseEntity<SnapshotManifest> getManifest(String etag) {
+            this.manifests++;
+            return super.getManifest(etag);
+        }
+
+        @Override
+        public ResponseEntity<Sources> getSnapshot(String etag) {
+            this.snapshots++;
+            return super.getSnapshot(etag);
+        }
+
+        @Override
+        public ResponseEntity<Source> getSource(String hash) {
+            this.sources++;
+            return super.getSource(hash);
+        }
+
+        @Override
+        public boolean isDeltaSupported() {
+            return this.deltaSupported;
+        }
+    }
+}
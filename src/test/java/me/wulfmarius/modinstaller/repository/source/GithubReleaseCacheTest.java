@@ -0,0 +1,67 @@
+package me.wulfmarius.modinstaller.repository.source;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Optional;
+
+import org.junit.*;
+import org.springframework.util.FileSystemUtils;
+
+public class GithubReleaseCacheTest {
+
+    private static final String ETAG = "W/\"0123456789abcdef\"";
+
+    private Path basePath;
+    private GithubReleaseCache releaseCache;
+
+    private static GithubRelease createRelease(String tag) {
+        GithubRelease result = new GithubRelease();
+
+        result.setTag(tag);
+        result.setName("Release " + tag);
+        result.setAssets(new GithubAsset[0]);
+
+        return result;
+    }
+
+    @Before
+    public void before() throws IOException {
+        this.basePath = Paths.get("./target/github-release-cache-test");
+        FileSystemUtils.deleteRecursively(this.basePath);
+
+        this.releaseCache = new GithubReleaseCache(this.basePath);
+    }
+
+    @Test
+    public void brokenEntriesAreIgnored() throws IOException {
+        Path path = this.basePath.resolve("user").resolve("repository.json");
+        Files.createDirectories(path.getParent());
+        Files.write(path, "{\"etag\": \"".getBytes(StandardCharsets.UTF_8));
+        assertFalse(this.releaseCache.read("user", "repository").isPresent());
+
+        Files.write(path, "{\"releases\": []}".getBytes(StandardCharsets.UTF_8));
+        assertFalse(this.releaseCache.read("user", "repository").isPresent());
+    }
+
+    @Test
+    public void missingEntryIsEmpty() {
+        assertFalse(this.releaseCache.read("user", "repository").isPresent());
+    }
+
+    @Test
+    public void releasesAreReadBackWithTheirEtag() {
+        this.releaseCache.write("User", "Repository",
+                CachedGithubReleases.create(ETAG, new GithubRelease[] { createRelease("v2.0"), createRelease("v1.0") }));
+
+        // GitHub treats user and repository names case-insensitively
+        Optional<CachedGithubReleases> cached = new GithubReleaseCache(this.basePath).read("user", "REPOSITORY");
+        assertTrue(cached.isPresent());
+        assertEquals(ETAG, cached.get().getEtag());
+        assertEquals(2, cached.get().getReleases().length);
+        assertEquals("v2.0", cached.get().getReleases()[0].getTag());
+        assertEquals("v1.0", cached.get().getReleases()[1].getTag());
+    }
+}
@@ -0,0 +1,46 @@
+package me.wulfmarius.modinstaller.rest;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class AdaptiveTimeoutsTest {
+
+    private final AdaptiveTimeouts adaptiveTimeouts = new AdaptiveTimeouts(10000);
+
+    @Test
+    public void fastHostKeepsConfiguredTimeout() {
+        // 10 MB in one second
+        this.adaptiveTimeouts.recordTransfer("fast", 50, 10_000_000, 1000);
+
+        assertEquals(10000, this.adaptiveTimeouts.getReadTimeout("fast"));
+    }
+
+    @Test
+    public void slowHostGetsLongerTimeout() {
+        // 64 KiB in 16 seconds
+        this.adaptiveTimeouts.recordTransfer("slow", 200, 65536, 16000);
+
+        assertEquals(64000, this.adaptiveTimeouts.getReadTimeout("slow"));
+        assertEquals(10000, this.adaptiveTimeouts.getReadTimeout("other"));
+    }
+
+    @Test
+    public void smallResponsesDoNotMeasureThroughput() {
+        this.adaptiveTimeouts.recordTransfer("host", 100, 100, 5000);
+
+        assertEquals(10000, this.adaptiveTimeouts.getReadTimeout("host"));
+    }
+
+    @Test
+    public void timeoutDoublesUpToMaximum() {
+        this.adaptiveTimeouts.recordTimeout("host");
+        assertEquals(20000, this.adaptiveTimeouts.getReadTimeout("host"));
+
+        for (int i = 0; i < 10; i++) {
+            this.adaptiveTimeouts.recordTimeout("host");
+        }
+
+        assertEquals(120000, this.adaptiveTimeouts.getReadTimeout("host"));
+    }
+}
@@ -0,0 +1,55 @@
+package me.wulfmarius.modinstaller.rest;
+
+import static org.junit.Assert.*;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class BandwidthLimiterTest {
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Test
+    public void interruptedTransferFails() {
+        BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(1024);
+
+        Thread.currentThread().interrupt();
+        try {
+            bandwidthLimiter.acquire(1024 * 1024);
+            fail("Expected an InterruptedIOException.");
+        } catch (InterruptedIOException e) {
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+    @Test
+    public void transfersAreSpreadOverTheRate() throws InterruptedIOException {
+        BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(100 * 1024);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            bandwidthLimiter.acquire(50 * 1024);
+        }
+
+        // 150 KiB at 100 KiB/s, starting without any burst allowance
+        long elapsed = elapsedMillis(start);
+        assertTrue("Took " + elapsed + "ms", elapsed >= 1300);
+        assertTrue("Took " + elapsed + "ms", elapsed < 5000);
+    }
+
+    @Test
+    public void unlimitedTransfersDoNotWait() throws InterruptedIOException {
+        BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            bandwidthLimiter.acquire(1024 * 1024);
+        }
+
+        assertTrue(elapsedMillis(start) < 1000);
+    }
+}
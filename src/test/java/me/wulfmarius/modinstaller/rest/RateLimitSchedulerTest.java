@@ -0,0 +1,136 @@
+package me.wulfmarius.modinstaller.rest;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.FileSystemUtils;
+
+public class RateLimitSchedulerTest {
+
+    private static final String HOST = "api.github.com";
+    private static final String URL = "https://" + HOST + "/repos/owner/name/releases";
+
+    // later than Integer.MAX_VALUE seconds after the epoch
+    private static final long RESET = 4102444800L;
+
+    private final RateLimitScheduler rateLimitScheduler = new RateLimitScheduler(30);
+
+    private Path path;
+
+    private static HttpHeaders createHeaders(int remaining, long reset) {
+        HttpHeaders result = new HttpHeaders();
+
+        result.set("X-RateLimit-Limit", "60");
+        result.set("X-RateLimit-Remaining", String.valueOf(remaining));
+        result.set("X-RateLimit-Reset", String.valueOf(reset));
+
+        return result;
+    }
+
+    @Before
+    public void before() throws IOException {
+        Path basePath = Paths.get("./target/rate-limit-scheduler-test");
+        FileSystemUtils.deleteRecursively(basePath);
+        Files.createDirectories(basePath);
+
+        this.path = basePath.resolve("rate-limits.json");
+    }
+
+    @Test
+    public void exhaustedLimitAbortsRequests() {
+        this.rateLimitScheduler.update(URL, createHeaders(0, RESET));
+
+        try {
+            this.rateLimitScheduler.acquire(URL, RequestPriority.HIGH);
+            fail("Expected a RateLimitException.");
+        } catch (RateLimitException e) {
+            assertEquals(RESET, e.getReset().getEpochSecond());
+        }
+    }
+
+    @Test
+    public void lowPriorityRequestsAreQueuedUntilTheLimitResets() throws Exception {
+        // 30 percent of a limit of 60
+        this.rateLimitScheduler.update(URL, createHeaders(19, RESET));
+
+        this.rateLimitScheduler.acquire(URL, RequestPriority.HIGH);
+        assertEquals(18, this.rateLimitScheduler.getRateLimit(HOST).getRemaining());
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> queued = executorService.submit(() -> this.rateLimitScheduler.acquire(URL, RequestPriority.LOW));
+            try {
+                queued.get(200, TimeUnit.MILLISECONDS);
+                fail("Expected the request to be queued.");
+            } catch (TimeoutException e) {
+                // expected
+            }
+
+            this.rateLimitScheduler.update(URL, createHeaders(60, RESET + 3600));
+            queued.get(5, TimeUnit.SECONDS);
+            assertEquals(59, this.rateLimitScheduler.getRateLimit(HOST).getRemaining());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void lowPriorityRequestsKeepTheReserve() {
+        this.rateLimitScheduler.update(URL, createHeaders(19, RESET));
+
+        this.rateLimitScheduler.acquire(URL, RequestPriority.LOW);
+        assertEquals(18, this.rateLimitScheduler.getRateLimit(HOST).getRemaining());
+
+        this.rateLimitScheduler.acquire(URL, RequestPriority.HIGH);
+        assertEquals(17, this.rateLimitScheduler.getRateLimit(HOST).getRemaining());
+    }
+
+    @Test
+    public void remainingCountsArePersisted() throws IOException {
+        this.rateLimitScheduler.configure(this.path);
+
+        this.rateLimitScheduler.update(URL, createHeaders(50, RESET));
+        this.rateLimitScheduler.acquire(URL, RequestPriority.HIGH);
+        this.assertRestoredRemaining(49);
+
+        this.rateLimitScheduler.update(URL, createHeaders(40, RESET));
+        this.assertRestoredRemaining(40);
+
+        // a late response with a higher count changes nothing
+        Files.delete(this.path);
+        this.rateLimitScheduler.update(URL, createHeaders(45, RESET));
+        assertFalse(Files.exists(this.path));
+
+        this.rateLimitScheduler.update(URL, createHeaders(60, RESET + 3600));
+        this.assertRestoredRemaining(60);
+    }
+
+    @Test
+    public void resetBeyondIntegerRangeIsKept() {
+        this.rateLimitScheduler.update(URL, createHeaders(50, RESET));
+
+        RateLimit rateLimit = this.rateLimitScheduler.getRateLimit(HOST);
+        assertEquals(60, rateLimit.getLimit());
+        assertEquals(50, rateLimit.getRemaining());
+        assertEquals(RESET, rateLimit.getReset());
+    }
+
+    @Test
+    public void responsesOutOfOrderKeepTheLowestCount() {
+        this.rateLimitScheduler.update(URL, createHeaders(30, RESET));
+        this.rateLimitScheduler.update(URL, createHeaders(35, RESET));
+
+        assertEquals(30, this.rateLimitScheduler.getRateLimit(HOST).getRemaining());
+    }
+
+    private void assertRestoredRemaining(int remaining) {
+        RateLimitScheduler restored = new RateLimitScheduler(30);
+        restored.configure(this.path);
+        assertEquals(remaining, restored.getRateLimit(HOST).getRemaining());
+    }
+}
@@ -0,0 +1,37 @@
+package me.wulfmarius.modinstaller.rest;
+
+import static org.junit.Assert.*;
+
+import java.net.*;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.*;
+
+public class RetryPolicyTest {
+
+    private final RetryPolicy retryPolicy = new RetryPolicy(3, 500);
+
+    @Test
+    public void delayGrowsWithJitterAndIsCapped() {
+        for (int i = 0; i < 100; i++) {
+            long first = this.retryPolicy.getDelay(1);
+            assertTrue(first >= 250 && first <= 500);
+
+            long third = this.retryPolicy.getDelay(3);
+            assertTrue(third >= 1000 && third <= 2000);
+
+            long capped = this.retryPolicy.getDelay(20);
+            assertTrue(capped >= 4000 && capped <= 8000);
+        }
+    }
+
+    @Test
+    public void onlyTransientFailuresAreRetried() {
+        assertTrue(this.retryPolicy.isRetryable(new HttpServerErrorException(HttpStatus.BAD_GATEWAY)));
+        assertTrue(this.retryPolicy.isRetryable(new ResourceAccessException("timeout", new SocketTimeoutException())));
+
+        assertFalse(this.retryPolicy.isRetryable(new HttpClientErrorException(HttpStatus.NOT_FOUND)));
+        assertFalse(this.retryPolicy.isRetryable(new ResourceAccessException("unknown", new UnknownHostException())));
+    }
+}
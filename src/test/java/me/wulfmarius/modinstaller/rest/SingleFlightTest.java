@@ -0,0 +1,78 @@
+package me.wulfmarius.modinstaller.rest;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class SingleFlightTest {
+
+    private final AtomicInteger shared = new AtomicInteger();
+    private final SingleFlight<String, List<String>> singleFlight = new SingleFlight<>(0, value -> {
+        this.shared.incrementAndGet();
+        return () -> new ArrayList<>(value);
+    });
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void joinedCallersShareOneRequest() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        try {
+            List<String> original = new ArrayList<>(Arrays.asList("a"));
+            Future<List<String>> leader = executorService.submit(() -> this.singleFlight.execute("key", () -> {
+                requests.incrementAndGet();
+                await(release);
+                return original;
+            }));
+            while (requests.get() == 0) {
+                Thread.sleep(1);
+            }
+
+            Future<List<String>> joined = executorService.submit(() -> this.singleFlight.execute("key", () -> {
+                requests.incrementAndGet();
+                return new ArrayList<>();
+            }));
+            Thread.sleep(200);
+            release.countDown();
+
+            assertSame(original, leader.get());
+            assertEquals(original, joined.get());
+            assertNotSame(original, joined.get());
+            assertEquals(1, requests.get());
+            assertEquals(1, this.shared.get());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void resultIsNotSharedWithoutJoinedCallers() {
+        List<String> original = new ArrayList<>();
+
+        assertSame(original, this.singleFlight.execute("key", () -> original));
+        assertEquals(0, this.shared.get());
+    }
+
+    @Test
+    public void sequentialCallsRequestAgainWithoutCacheWindow() {
+        AtomicInteger requests = new AtomicInteger();
+
+        this.singleFlight.execute("key", () -> Arrays.asList(String.valueOf(requests.incrementAndGet())));
+        List<String> result = this.singleFlight.execute("key", () -> Arrays.asList(String.valueOf(requests.incrementAndGet())));
+
+        assertEquals(Arrays.asList("2"), result);
+    }
+}
@@ -0,0 +1,123 @@
+package me.wulfmarius.modinstaller.rest;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import org.junit.*;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.*;
+import org.springframework.util.StreamUtils;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class TransportFactoryTest {
+
+    private final Set<Integer> clientPorts = Collections.synchronizedSet(new HashSet<>());
+
+    private HttpServer httpServer;
+
+    private static String get(ClientHttpRequestFactory requestFactory, URI uri) throws IOException {
+        try (ClientHttpResponse response = requestFactory.createRequest(uri, HttpMethod.GET).execute()) {
+            return StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @After
+    public void after() {
+        this.httpServer.stop(0);
+    }
+
+    @Before
+    public void before() throws IOException {
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.httpServer.createContext("/ok", exchange -> {
+            this.clientPorts.add(exchange.getRemoteAddress().getPort());
+
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        this.httpServer.createContext("/large", exchange -> {
+            this.clientPorts.add(exchange.getRemoteAddress().getPort());
+
+            byte[] body = new byte[1024 * 1024];
+            exchange.sendResponseHeaders(200, body.length * 16L);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                for (int i = 0; i < 16; i++) {
+                    outputStream.write(body);
+                }
+            } catch (IOException e) {
+                // client aborted
+            }
+        });
+        this.httpServer.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        this.httpServer.start();
+    }
+
+    @Test
+    public void pooledTransportAbortsPartiallyReadResponses() throws IOException {
+        ClientHttpRequestFactory requestFactory = new PooledTransportFactory().create(new TransportConfiguration());
+
+        try (ClientHttpResponse response = requestFactory.createRequest(this.getUri("/large"), HttpMethod.GET).execute()) {
+            assertEquals(1024, response.getBody().read(new byte[1024]));
+        }
+
+        // the aborted connection is not returned to the pool
+        assertEquals("ok", get(requestFactory, this.getUri("/ok")));
+        assertEquals(2, this.clientPorts.size());
+    }
+
+    @Test
+    public void pooledTransportAppliesReadTimeoutPolicy() {
+        this.assertReadTimeoutPolicyApplied(new PooledTransportFactory());
+    }
+
+    @Test
+    public void pooledTransportReusesConnections() throws IOException {
+        ClientHttpRequestFactory requestFactory = new PooledTransportFactory().create(new TransportConfiguration());
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("ok", get(requestFactory, this.getUri("/ok")));
+        }
+
+        assertEquals(1, this.clientPorts.size());
+    }
+
+    @Test
+    public void simpleTransportAppliesReadTimeoutPolicy() {
+        this.assertReadTimeoutPolicyApplied(new SimpleTransportFactory());
+    }
+
+    private void assertReadTimeoutPolicyApplied(TransportFactory transportFactory) {
+        TransportConfiguration configuration = new TransportConfiguration();
+        configuration.setReadTimeout(10000);
+        configuration.setReadTimeoutPolicy(uri -> 200);
+        ClientHttpRequestFactory requestFactory = transportFactory.create(configuration);
+
+        try {
+            get(requestFactory, this.getUri("/slow"));
+            fail("Expected a SocketTimeoutException.");
+        } catch (IOException e) {
+            assertTrue(e.toString(), e instanceof SocketTimeoutException);
+        }
+    }
+
+    private URI getUri(String path) {
+        return URI.create("http://localhost:" + this.httpServer.getAddress().getPort() + path);
+    }
+}
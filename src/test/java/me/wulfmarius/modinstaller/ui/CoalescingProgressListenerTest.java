@@ -0,0 +1,117 @@
+package me.wulfmarius.modinstaller.ui;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+import me.wulfmarius.modinstaller.ProgressListener;
+
+public class CoalescingProgressListenerTest {
+
+    private final BlockingQueue<Runnable> published = new LinkedBlockingQueue<>();
+    private final RecordingProgressListener delegate = new RecordingProgressListener();
+
+    @Test
+    public void errorsArePublishedRightAway() throws InterruptedException {
+        CoalescingProgressListener listener = new CoalescingProgressListener(this.delegate, 60_000, this.published::add);
+        listener.started("Install");
+        this.publishNext();
+
+        listener.stepDetail("Downloading");
+        assertNull(this.published.poll(100, TimeUnit.MILLISECONDS));
+
+        listener.stepError("Failed");
+        this.publishNext();
+
+        assertEquals(Arrays.asList("started Install", "detail Downloading", "error Failed"), this.delegate.events);
+    }
+
+    @Test
+    public void eventsArePublishedInOrder() throws InterruptedException {
+        CoalescingProgressListener listener = new CoalescingProgressListener(this.delegate, 0, this.published::add);
+        listener.stepStarted("Download", ProgressListener.StepType.DOWNLOAD);
+        listener.stepProgress(1, 10);
+        listener.stepDetail("a.zip");
+        listener.stepProgress(2, 10);
+        listener.finished("Done");
+
+        this.publishNext();
+        assertNull(this.published.poll());
+
+        assertEquals(Arrays.asList("step Download", "progress 1/10", "detail a.zip", "progress 2/10", "finished Done"),
+                this.delegate.events);
+    }
+
+    @Test
+    public void laterEventsWaitForTheInterval() throws InterruptedException {
+        CoalescingProgressListener listener = new CoalescingProgressListener(this.delegate, 200, this.published::add);
+        listener.stepProgress(1, 10);
+        this.publishNext();
+
+        long started = System.nanoTime();
+        listener.stepProgress(2, 10);
+        listener.stepProgress(3, 10);
+        this.publishNext();
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) >= 100);
+        assertEquals(Arrays.asList("progress 1/10", "progress 3/10"), this.delegate.events);
+    }
+
+    @Test
+    public void progressUpdatesCollapseIntoTheLatest() throws InterruptedException {
+        CoalescingProgressListener listener = new CoalescingProgressListener(this.delegate, 0, this.published::add);
+        for (int i = 1; i <= 1000; i++) {
+            listener.stepProgress(i, 1000);
+        }
+
+        // a single publish task is pending, no matter how many events came in
+        assertEquals(1, this.published.size());
+        this.publishNext();
+
+        assertEquals(Collections.singletonList("progress 1000/1000"), this.delegate.events);
+    }
+
+    private void publishNext() throws InterruptedException {
+        Runnable publish = this.published.poll(5, TimeUnit.SECONDS);
+        assertNotNull(publish);
+        publish.run();
+    }
+
+    private static class RecordingProgressListener implements ProgressListener {
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void finished(String message) {
+            this.events.add("finished " + message);
+        }
+
+        @Override
+        public void started(String name) {
+            this.events.add("started " + name);
+        }
+
+        @Override
+        public void stepDetail(String detail) {
+            this.events.add("detail " + detail);
+        }
+
+        @Override
+        public void stepError(String error) {
+            this.events.add("error " + error);
+        }
+
+        @Override
+        public void stepProgress(int completed, int total) {
+            this.events.add("progress " + completed + "/" + total);
+        }
+
+        @Override
+        public void stepStarted(String step, StepType stepType) {
+            this.events.add("step " + step);
+        }
+    }
+}